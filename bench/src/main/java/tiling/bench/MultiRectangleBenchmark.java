@@ -0,0 +1,53 @@
+package tiling.bench;
+
+import org.openjdk.jmh.annotations.*;
+import tiling.PenroseTiling;
+import tiling.RectangleQuery;
+import tiling.Subsection;
+import tiling.TileBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting many seeded random subsections at once, with one shared walk against one build per subsection
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiRectangleBenchmark {
+    @Param({"10", "500"})
+    public int windows;
+
+    private TileBuffer rootTri;
+    private List<Subsection> sections;
+
+    @Setup
+    public void setup() {
+        rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        sections = new ArrayList<>();
+        for (int seed = 0; seed < windows; seed++)
+            sections.add(Subsection.random(new Random(seed), PenroseTiling.BASE_LENGTH, 60));
+    }
+
+    @Benchmark
+    public TileBuffer[] shared() {
+        return RectangleQuery.collect(rootTri, sections);
+    }
+
+    @Benchmark
+    public TileBuffer[] separate() {
+        TileBuffer[] tiles = new TileBuffer[sections.size()];
+        for (int i = 0; i < tiles.length; i++) {
+            Subsection section = sections.get(i);
+            tiles[i] = TileBuffer.buildLevels(rootTri, section.getDepth(), section::overlapping)[section.getDepth()];
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,55 @@
+package tiling.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tiling.KDPenroseTri;
+import tiling.TileBuffer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the triangle/rectangle overlap test against the tiles of one generation. The rectangles come from a fixed
+ * seed so every run checks the same pairs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapBenchmark {
+    // Number of random rectangles each tile is checked against
+    private static final int RECTANGLES = 64;
+
+    private double[] coords;
+    private int tiles;
+    private int[] rects;
+
+    @Setup
+    public void setup() {
+        TileBuffer[] levels = TileBuffer.buildLevels(TileBuffer.rootTri(900), 8, null);
+        coords = levels[8].coords();
+        tiles = levels[8].size();
+
+        Random r = new Random(42);
+        rects = new int[3 * RECTANGLES];
+        for (int i = 0; i < rects.length; i += 3) {
+            rects[i] = r.nextInt(800);
+            rects[i + 1] = r.nextInt(600);
+            rects[i + 2] = 30 + r.nextInt(200);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECTANGLES)
+    public void overlapping(Blackhole bh) {
+        for (int j = 0; j < rects.length; j += 3) {
+            int hits = 0;
+            for (int i = 0; i < tiles; i++)
+                if (KDPenroseTri.overlapping(coords, i * TileBuffer.STRIDE, rects[j], rects[j + 1], rects[j + 2]))
+                    hits++;
+            bh.consume(hits);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tiling.bench;
+
+import org.openjdk.jmh.annotations.*;
+import tiling.BatchSubdivider;
+import tiling.GroupedTileBuffer;
+import tiling.KDPenroseTri;
+import tiling.SubstitutionRules;
+import tiling.TileBuffer;
+import tiling.TileTypes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the flat subdivision kernel, the type grouped batch kernels and the table driven kernel running the
+ * kite/dart rules. Without a rectangle every triangle is kept, and with one each level is filtered by the overlap test.
+ * The batch benchmarks run the vector kernel when core was built with the vector profile, and the scalar one otherwise
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SubdivisionBenchmark {
+    @Param({"8", "10", "12"})
+    public int depth;
+
+    // Square a little below the middle of rootTri. Small enough that most kept triangles are well inside it
+    private static final double RECT_X = 350;
+    private static final double RECT_Y = 120;
+    private static final double RECT_LENGTH = 150;
+
+    private TileBuffer rootTri;
+
+    // Thin rhomb half. Has as many triangles below it as rootTri at every depth, so the two compare tile for tile
+    private TileBuffer rhombRootTri;
+
+    private GroupedTileBuffer groupedRootTri;
+    private BatchSubdivider batch;
+    private BatchSubdivider scalar;
+
+    @Setup
+    public void setup() {
+        rootTri = TileBuffer.rootTri(900);
+        rhombRootTri = new TileBuffer(1);
+        rhombRootTri.add(TileTypes.THIN_RHOMB, rootTri.x(0, 0), rootTri.y(0, 0), rootTri.x(0, 1), rootTri.y(0, 1),
+                rootTri.x(0, 2), rootTri.y(0, 2));
+        groupedRootTri = GroupedTileBuffer.of(rootTri);
+        batch = BatchSubdivider.create();
+        scalar = new BatchSubdivider();
+    }
+
+    @Benchmark
+    public GroupedTileBuffer[] batchBuildLevels() {
+        return batch.buildLevels(groupedRootTri, depth);
+    }
+
+    @Benchmark
+    public GroupedTileBuffer[] scalarBatchBuildLevels() {
+        return scalar.buildLevels(groupedRootTri, depth);
+    }
+
+    @Benchmark
+    public TileBuffer[] buildLevelsRect() {
+        return TileBuffer.buildLevels(rootTri, depth + 4,
+                (pts, offset) -> KDPenroseTri.overlapping(pts, offset, RECT_X, RECT_Y, RECT_LENGTH));
+    }
+
+    @Benchmark
+    public GroupedTileBuffer[] batchBuildLevelsRect() {
+        return batch.buildLevels(groupedRootTri, depth + 4, RECT_X, RECT_Y, RECT_LENGTH);
+    }
+
+    @Benchmark
+    public GroupedTileBuffer[] scalarBatchBuildLevelsRect() {
+        return scalar.buildLevels(groupedRootTri, depth + 4, RECT_X, RECT_Y, RECT_LENGTH);
+    }
+
+    @Benchmark
+    public TileBuffer[] buildLevels() {
+        return TileBuffer.buildLevels(rootTri, depth, null);
+    }
+
+    @Benchmark
+    public TileBuffer[] rulesBuildLevels() {
+        return SubstitutionRules.KITE_DART.buildLevels(rootTri, depth, null);
+    }
+
+    @Benchmark
+    public TileBuffer[] rhombBuildLevels() {
+        return SubstitutionRules.RHOMB.buildLevels(rhombRootTri, depth, null);
+    }
+}
@@ -0,0 +1,58 @@
+package tiling.bench;
+
+import org.openjdk.jmh.annotations.*;
+import tiling.KDPenroseTri;
+import tiling.PenroseTiling;
+import tiling.TileBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full random subsection query the way the Generator window runs one: the rectangle sets the depth, triangles
+ * outside it are pruned and triangles inside it are stamped from templates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubsectionBenchmark {
+    // Side length of the square subsection. Smaller rectangles go deeper
+    @Param({"200", "60"})
+    public int rectLength;
+
+    @Param({"1"})
+    public int threads;
+
+    private PenroseTiling tiling;
+    private TileBuffer rootTri;
+    private int depth;
+    private TileBuffer.CheckTile setTri;
+    private TileBuffer.CheckTile insideTri;
+
+    @Setup
+    public void setup() {
+        tiling = new PenroseTiling(threads);
+        rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        int triHeight = TileBuffer.rootHeight(PenroseTiling.BASE_LENGTH);
+        depth = PenroseTiling.calcDepth(triHeight, rectLength);
+
+        // Centered a little below the middle so the rectangle is always within rootTri
+        int rectX = (PenroseTiling.BASE_LENGTH - rectLength) / 2;
+        int rectY = triHeight / 2;
+        setTri = (pts, offset) -> KDPenroseTri.overlapping(pts, offset, rectX, rectY, rectLength);
+        insideTri = (pts, offset) -> KDPenroseTri.inside(pts, offset, rectX, rectY, rectLength);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tiling.shutdown();
+    }
+
+    @Benchmark
+    public TileBuffer[] buildPenroseTiles() {
+        return tiling.buildPenroseTiles(rootTri, depth, setTri, insideTri);
+    }
+}
@@ -0,0 +1,61 @@
+package tiling;
+
+import static tiling.TileAssertions.assertSameTiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BatchSubdividerTest {
+    private static final int DEPTH = 10;
+
+    @Test
+    void makesTheSameTrianglesAsTileBuffer() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        TileBuffer[] expected = TileBuffer.buildLevels(rootTri, DEPTH, null);
+        GroupedTileBuffer[] actual = new BatchSubdivider().buildLevels(GroupedTileBuffer.of(rootTri), DEPTH);
+
+        for (int level = 0; level <= DEPTH; level++)
+            assertSameTiles(sorted(expected[level]), sorted(actual[level].toTileBuffer()), "level " + level);
+    }
+
+    @Test
+    void keepsTheSameTrianglesAsTileBufferInRectangle() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+
+        TileBuffer[] expected = TileBuffer.buildLevels(rootTri, DEPTH, section::overlapping);
+        GroupedTileBuffer[] actual = new BatchSubdivider().buildLevels(GroupedTileBuffer.of(rootTri), DEPTH,
+                section.getRectX(), section.getRectY(), section.getRectLength());
+
+        for (int level = 0; level <= DEPTH; level++)
+            assertSameTiles(sorted(expected[level]), sorted(actual[level].toTileBuffer()), "level " + level);
+    }
+
+    /**
+     * The batch kernel orders a level differently, so both sides are put in one order before they are compared
+     */
+    private static TileBuffer sorted(TileBuffer tiles) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < tiles.size(); i++)
+            order.add(i);
+
+        Comparator<Integer> byTile = Comparator.comparingInt(tiles::type);
+        for (int c = 0; c < TileBuffer.STRIDE; c++) {
+            int coordinate = c;
+            byTile = byTile.thenComparingDouble(i -> tiles.coords()[i * TileBuffer.STRIDE + coordinate]);
+        }
+        order.sort(byTile);
+
+        TileBuffer out = new TileBuffer(tiles.size());
+        double[] c = tiles.coords();
+        for (int i : order) {
+            int o = i * TileBuffer.STRIDE;
+            out.add(tiles.type(i), c[o], c[o + 1], c[o + 2], c[o + 3], c[o + 4], c[o + 5]);
+        }
+
+        return out;
+    }
+}
@@ -0,0 +1,29 @@
+package tiling;
+
+import static tiling.TileAssertions.assertSameLevels;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BuildClassifiedTest {
+    private static final int SECTIONS = 40;
+    private static final long SEED = 7;
+
+    @Test
+    void matchesFilteredBuildLevels() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Random r = new Random(SEED);
+
+        for (int n = 0; n < SECTIONS; n++) {
+            Subsection section = Subsection.random(r, PenroseTiling.BASE_LENGTH, 60);
+            int rectX = section.getRectX();
+            int rectY = section.getRectY();
+            int rectLength = section.getRectLength();
+
+            assertSameLevels(TileBuffer.buildLevels(rootTri, section.getDepth(), section::overlapping),
+                    TileBuffer.buildClassified(rootTri, section.getDepth(),
+                            (pts, offset) -> KDPenroseTri.classify(pts, offset, rectX, rectY, rectLength)));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ChunkCacheTest {
+    private static final int TILES = 10;
+
+    private ChunkCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Room for three chunks of TILES tiles
+        cache = new ChunkCache(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH), 256, 4,
+                3 * TILES * ChunkCache.BYTES_PER_TILE, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void storeCountsBytes() {
+        cache.store(ChunkCache.key(0, 0, 0), chunk(TILES));
+        assertEquals(TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+
+        cache.store(ChunkCache.key(0, 1, 0), chunk(2 * TILES));
+        assertEquals(3 * TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+        assertNotNull(cache.getIfPresent(0, 0, 0));
+        assertNotNull(cache.getIfPresent(0, 1, 0));
+    }
+
+    @Test
+    void storeEvictsLeastRecentlyUsed() {
+        TileBuffer first = chunk(TILES);
+        cache.store(ChunkCache.key(0, 0, 0), first);
+        cache.store(ChunkCache.key(0, 1, 0), chunk(TILES));
+        cache.store(ChunkCache.key(0, 2, 0), chunk(TILES));
+
+        // Touching the first chunk leaves the second as the least recently used
+        assertSame(first, cache.getIfPresent(0, 0, 0));
+        cache.store(ChunkCache.key(0, 3, 0), chunk(TILES));
+
+        assertNull(cache.getIfPresent(0, 1, 0));
+        assertSame(first, cache.getIfPresent(0, 0, 0));
+        assertNotNull(cache.getIfPresent(0, 2, 0));
+        assertNotNull(cache.getIfPresent(0, 3, 0));
+        assertEquals(3 * TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+
+        // A chunk taking two slots pushes out the two least recently used
+        cache.store(ChunkCache.key(0, 4, 0), chunk(2 * TILES));
+        assertNull(cache.getIfPresent(0, 0, 0));
+        assertNull(cache.getIfPresent(0, 2, 0));
+        assertNotNull(cache.getIfPresent(0, 3, 0));
+        assertNotNull(cache.getIfPresent(0, 4, 0));
+        assertEquals(3 * TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+    }
+
+    @Test
+    void storeSkipsChunksOverTheCap() {
+        cache.store(ChunkCache.key(0, 0, 0), chunk(TILES));
+        cache.store(ChunkCache.key(0, 1, 0), chunk(3 * TILES + 1));
+
+        assertNull(cache.getIfPresent(0, 1, 0));
+        assertNotNull(cache.getIfPresent(0, 0, 0));
+        assertEquals(TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+    }
+
+    @Test
+    void retainKeepsBuiltChunks() {
+        cache.store(ChunkCache.key(0, 0, 0), chunk(TILES));
+        cache.retain(1, 5, 5, 6, 6);
+
+        assertNotNull(cache.getIfPresent(0, 0, 0));
+        assertEquals(TILES * ChunkCache.BYTES_PER_TILE, cache.getBytes());
+    }
+
+    private static TileBuffer chunk(int tiles) {
+        TileBuffer chunk = new TileBuffer(tiles);
+        for (int i = 0; i < tiles; i++)
+            chunk.add(i % 4, i, 0, i + 1, 0, i, 1);
+        return chunk;
+    }
+}
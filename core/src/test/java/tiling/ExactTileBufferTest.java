@@ -0,0 +1,51 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ExactTileBufferTest {
+    private static final int DEPTH = 10;
+
+    // Double builds drift by a few ulps a level, which stays far below this at DEPTH
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    void matchesDoubleBuild() {
+        ExactTileBuffer exactRoot = ExactTileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        // Starts the double build from the exact root's screen points, as TileBuffer.rootTri rounds its height down
+        TileBuffer[] expected = TileBuffer.buildLevels(exactRoot.toScreen(), DEPTH, null);
+        ExactTileBuffer[] exact = ExactTileBuffer.buildLevels(exactRoot, DEPTH, null);
+
+        assertEquals(expected.length, exact.length);
+        for (int level = 0; level <= DEPTH; level++) {
+            TileBuffer actual = exact[level].toScreen();
+
+            assertEquals(expected[level].size(), actual.size(), "level " + level + " size");
+            for (int i = 0; i < actual.size(); i++) {
+                assertEquals(expected[level].type(i), actual.type(i), "level " + level + " type of tile " + i);
+                for (int point = 0; point < 3; point++) {
+                    assertEquals(expected[level].x(i, point), actual.x(i, point), TOLERANCE);
+                    assertEquals(expected[level].y(i, point), actual.y(i, point), TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rootMatchesDoubleRoot() {
+        TileBuffer exact = ExactTileBuffer.rootTri(PenroseTiling.BASE_LENGTH).toScreen();
+        TileBuffer rounded = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        assertEquals(rounded.type(0), exact.type(0));
+
+        // The apex is exact in both. The base only differs by TileBuffer.rootHeight rounding down
+        assertEquals(rounded.x(0, 0), exact.x(0, 0), TOLERANCE);
+        assertEquals(0, exact.y(0, 0));
+        for (int point = 1; point < 3; point++) {
+            assertEquals(rounded.x(0, point), exact.x(0, point), TOLERANCE);
+            assertEquals(rounded.y(0, point), exact.y(0, point), 1);
+        }
+    }
+}
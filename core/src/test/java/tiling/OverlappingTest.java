@@ -0,0 +1,233 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the separating axis test in KDPenroseTri.overlapping against a plain geometric test and against the line
+ * intersection test it replaced
+ */
+class OverlappingTest {
+    private static final int DEPTH = 8;
+    private static final int RECTANGLES = 500;
+    private static final long SEED = 42;
+
+    // Every triangle from the root down to DEPTH, packed like a TileBuffer
+    private static double[] pts;
+    private static int count;
+
+    @BeforeAll
+    static void buildTriangles() {
+        TileBuffer[] levels = TileBuffer.buildLevels(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH), DEPTH, null);
+        TileBuffer all = new TileBuffer();
+        for (TileBuffer level : levels)
+            all.addAll(level);
+
+        pts = all.coords();
+        count = all.size();
+    }
+
+    @Test
+    void matchesEdgeAndContainmentTest() {
+        Random r = new Random(SEED);
+        for (int n = 0; n < RECTANGLES; n++) {
+            int rectLength = 1 + r.nextInt(PenroseTiling.BASE_LENGTH / 2);
+            int rectX = r.nextInt(PenroseTiling.BASE_LENGTH) - rectLength / 2;
+            int rectY = r.nextInt(PenroseTiling.BASE_LENGTH) - rectLength / 2;
+
+            for (int i = 0; i < count; i++) {
+                int o = i * TileBuffer.STRIDE;
+                assertEquals(intersects(pts, o, rectX, rectY, rectLength),
+                        KDPenroseTri.overlapping(pts, o, rectX, rectY, rectLength),
+                        "triangle " + i + " against (" + rectX + ", " + rectY + ", " + rectLength + ")");
+            }
+        }
+    }
+
+    @Test
+    void neverAcceptsWhatTheOldTestRejected() {
+        Random r = new Random(SEED);
+        for (int n = 0; n < RECTANGLES; n++) {
+            int rectLength = 1 + r.nextInt(PenroseTiling.BASE_LENGTH / 2);
+            int rectX = r.nextInt(PenroseTiling.BASE_LENGTH) - rectLength / 2;
+            int rectY = r.nextInt(PenroseTiling.BASE_LENGTH) - rectLength / 2;
+
+            for (int i = 0; i < count; i++) {
+                int o = i * TileBuffer.STRIDE;
+                if (KDPenroseTri.overlapping(pts, o, rectX, rectY, rectLength))
+                    assertTrue(oldOverlapping(pts[o], pts[o + 1], pts[o + 2], pts[o + 3], pts[o + 4], pts[o + 5],
+                                    rectX, rectY, rectLength),
+                            "triangle " + i + " against (" + rectX + ", " + rectY + ", " + rectLength + ")");
+            }
+        }
+    }
+
+    /**
+     * The shapes meet when a corner of one is inside the other or an edge of one crosses an edge of the other
+     */
+    private static boolean intersects(double[] p, int o, double rectX, double rectY, double rectLength) {
+        double right = rectX + rectLength;
+        double bottom = rectY + rectLength;
+
+        for (int i = o; i < o + 6; i += 2)
+            if (p[i] >= rectX && p[i] <= right && p[i + 1] >= rectY && p[i + 1] <= bottom)
+                return true;
+
+        double[] corners = {rectX, rectY, right, rectY, right, bottom, rectX, bottom};
+        for (int c = 0; c < 8; c += 2)
+            if (inTriangle(p, o, corners[c], corners[c + 1]))
+                return true;
+
+        for (int e = 0; e < 3; e++) {
+            int a = o + 2 * e;
+            int b = o + 2 * ((e + 1) % 3);
+            for (int c = 0; c < 8; c += 2) {
+                int d = (c + 2) % 8;
+                if (segmentsCross(p[a], p[a + 1], p[b], p[b + 1], corners[c], corners[c + 1], corners[d],
+                        corners[d + 1]))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean inTriangle(double[] p, int o, double x, double y) {
+        double d1 = cross(p[o], p[o + 1], p[o + 2], p[o + 3], x, y);
+        double d2 = cross(p[o + 2], p[o + 3], p[o + 4], p[o + 5], x, y);
+        double d3 = cross(p[o + 4], p[o + 5], p[o], p[o + 1], x, y);
+        return !((d1 < 0 || d2 < 0 || d3 < 0) && (d1 > 0 || d2 > 0 || d3 > 0));
+    }
+
+    private static boolean segmentsCross(double ax, double ay, double bx, double by, double cx, double cy, double dx,
+                                         double dy) {
+        double d1 = cross(cx, cy, dx, dy, ax, ay);
+        double d2 = cross(cx, cy, dx, dy, bx, by);
+        double d3 = cross(ax, ay, bx, by, cx, cy);
+        double d4 = cross(ax, ay, bx, by, dx, dy);
+        return (d1 > 0) != (d2 > 0) && (d3 > 0) != (d4 > 0);
+    }
+
+    private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static double cartesianLength(double[] p1, double[] p2) {
+        return Math.sqrt(Math.pow(p1[0] - p2[0], 2) + Math.pow(p1[1] - p2[1], 2));
+    }
+
+    /**
+     * The line intersection test overlapping replaced, kept as it was. It truncates to whole pixels and pads every
+     * comparison by 3, so it accepts triangles a few pixels outside the rectangle
+     */
+    private static boolean oldOverlapping(double x1, double y1, double x2, double y2, double x3, double y3,
+                                          int rectX, int rectY, int rectLength) {
+        final int TOLERANCE = 3;
+        double[] p1 = new double[]{x1, y1};
+        double[] p2 = new double[]{x2, y2};
+        double[] p3 = new double[]{x3, y3};
+        double[] triPts = new double[]{p1[0], p1[1], p2[0], p2[1], p3[0], p3[1]};
+
+        // Case 1, a triangle point is inside the rectangle
+        for (int i = 0; i < triPts.length; i += 2) {
+            if (triPts[i] + TOLERANCE >= rectX && triPts[i] <= rectX + rectLength + TOLERANCE &&
+                    triPts[i + 1] + TOLERANCE >= rectY && triPts[i + 1] <= rectY + rectLength + TOLERANCE)
+                return true;
+        }
+
+        // Case 2, a rectangle point is in the triangle
+        int[] rectPts = new int[]{rectX, rectY, rectX, rectY + rectLength, rectX + rectLength, rectY,
+                rectX + rectLength, rectY + rectLength};
+
+        double m1 = (p3[1] - p2[1]) / (p3[0] - p2[0]);
+        double b1 = -m1 * p2[0] + p2[1];
+
+        for (int i = 0; i < rectPts.length; i += 2) {
+            double m2 = (rectPts[i + 1] - p1[1]) / (rectPts[i] - p1[0]);
+            double b2 = -m2 * p1[0] + p1[1];
+
+            int intersectX;
+            int intersectY;
+
+            // Deals with the edge case where line 1 or line 2 are vertical
+            if (Math.abs(m2) == Double.POSITIVE_INFINITY) {
+                intersectX = rectPts[i];
+                intersectY = (int) p2[1];
+            } else if (Math.abs(m1) == Double.POSITIVE_INFINITY) {
+                intersectX = (int) p2[0];
+                intersectY = rectPts[i + 1];
+            } else {
+                intersectX = (int) ((b1 - b2) / (m2 - m1));
+                intersectY = (int) (m1 * intersectX + b1);
+            }
+
+            // Skips if the rectangle point is past the intercept
+            if (cartesianLength(new double[]{rectPts[i], rectPts[i + 1]}, new double[]{p1[0], p1[1]}) >
+                    cartesianLength(new double[]{intersectX, intersectY}, new double[]{p1[0], p1[1]}))
+                continue;
+
+            // Skips if the rectangle is before p1
+            int checkLeft = Math.min(rectPts[i], intersectX);
+            int checkRight = Math.max(rectPts[i], intersectX);
+
+            if ((int) p1[0] > checkLeft && (int) p1[0] < checkRight)
+                continue;
+
+            // Checks if the intercept is between p2 and p3
+            int triPtLeft = (int) Math.min(triPts[2], triPts[4]);
+            int triPtRight = (int) Math.max(triPts[2], triPts[4]);
+            int triPtUp = (int) Math.min(triPts[3], triPts[5]);
+            int triPtDown = (int) Math.max(triPts[3], triPts[5]);
+
+            if (intersectX + TOLERANCE >= triPtLeft && intersectX <= triPtRight + TOLERANCE &&
+                    intersectY + TOLERANCE >= triPtUp && intersectY <= triPtDown + TOLERANCE)
+                return true;
+        }
+
+        // Case 3, no rectangle point is in triangle, no triangle point is in rectangle, but edges intersect
+
+        // triLines represents 2 lines that form two edges of the triangle in y-intercept form. In form {m1,b1,...}
+        double[] triLines = new double[4];
+        for (int i = 0; i < triLines.length; i += 2) {
+            triLines[i] = (triPts[i + 3] - triPts[i + 1]) / (triPts[i + 2] - triPts[i]);
+            triLines[i + 1] = -triLines[i] * triPts[i] + triPts[i + 1];
+        }
+
+        for (int i = 0; i < triLines.length; i += 2) {
+            // Check verticals
+            int checkLeftX = rectX;
+            int checkLeftY = (int) (triLines[i] * checkLeftX + triLines[i + 1]);
+            int checkRightX = rectX + rectLength;
+            int checkRightY = (int) (triLines[i] * checkRightX + triLines[i + 1]);
+
+            int triPtLeft = (int) Math.min(triPts[i], triPts[i + 2]);
+            int triPtRight = (int) Math.max(triPts[i], triPts[i + 2]);
+
+            if (checkLeftX + TOLERANCE >= triPtLeft && checkLeftX <= triPtRight + TOLERANCE &&
+                    checkLeftY + TOLERANCE >= rectY && checkLeftY <= rectY + rectLength + TOLERANCE)
+                return true;
+
+            if (checkRightX + TOLERANCE >= triPtLeft && checkRightX <= triPtRight + TOLERANCE &&
+                    checkRightY + TOLERANCE >= rectY && checkRightY <= rectY + rectLength + TOLERANCE)
+                return true;
+
+            // Check a horizontal
+            int checkTopY = rectY;
+            int checkTopX = (int) ((checkTopY - triLines[i + 1]) / triLines[i]);
+
+            int triPtUp = (int) Math.min(triPts[i + 1], triPts[i + 3]);
+            int triPtDown = (int) Math.max(triPts[i + 1], triPts[i + 3]);
+
+            if (checkTopX + TOLERANCE >= rectX && checkTopX <= rectX + rectLength + TOLERANCE &&
+                    checkTopY + TOLERANCE >= triPtUp && checkTopY <= triPtDown + TOLERANCE)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package tiling;
+
+import static tiling.TileAssertions.assertSameLevels;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelTileBuilderTest {
+    private static final int DEPTH = 12;
+
+    // Low enough that the tree is split into many tasks well before the base tiles
+    private static final int THRESHOLD = 64;
+
+    private ParallelTileBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = new ParallelTileBuilder(4, THRESHOLD, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        builder.shutdown();
+    }
+
+    @Test
+    void matchesSequentialBuild() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        assertSameLevels(TileBuffer.buildLevels(rootTri, DEPTH, null), builder.build(rootTri, DEPTH, null));
+    }
+
+    @Test
+    void matchesSequentialBuildInRectangle() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+
+        assertSameLevels(TileBuffer.buildLevels(rootTri, DEPTH, section::overlapping),
+                builder.build(rootTri, DEPTH, section::overlapping));
+    }
+}
@@ -0,0 +1,51 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tiling.TileAssertions.assertSameTiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RectangleQueryTest {
+    private static final int SECTIONS = 30;
+
+    @Test
+    void collectMatchesBuildLevels() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Random r = new Random(19);
+
+        List<Subsection> sections = new ArrayList<>();
+        for (int n = 0; n < SECTIONS; n++)
+            sections.add(Subsection.random(r, PenroseTiling.BASE_LENGTH, 60));
+
+        TileBuffer[] tiles = RectangleQuery.collect(rootTri, sections);
+        assertEquals(SECTIONS, tiles.length);
+
+        for (int n = 0; n < SECTIONS; n++) {
+            Subsection section = sections.get(n);
+            int depth = section.getDepth();
+            assertSameTiles(TileBuffer.buildLevels(rootTri, depth, section::overlapping)[depth], tiles[n],
+                    "section " + n);
+        }
+    }
+
+    @Test
+    void overlappingWindowsEachGetTheirTiles() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        List<Subsection> sections = List.of(new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200),
+                new Subsection(PenroseTiling.BASE_LENGTH, 350, 200, 100),
+                new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200));
+
+        TileBuffer[] tiles = RectangleQuery.collect(rootTri, sections);
+
+        for (int n = 0; n < sections.size(); n++) {
+            Subsection section = sections.get(n);
+            int depth = section.getDepth();
+            assertSameTiles(TileBuffer.buildLevels(rootTri, depth, section::overlapping)[depth], tiles[n],
+                    "section " + n);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static tiling.TileAssertions.assertSameTiles;
+
+import org.junit.jupiter.api.Test;
+
+class RefinableTilingTest {
+    @Test
+    void goingShallowerKeepsDeeperLevels() {
+        RefinableTiling tiling = new RefinableTiling(PenroseTiling.BASE_LENGTH);
+        TileBuffer deep = tiling.setDepth(8);
+
+        tiling.setDepth(5);
+        assertEquals(5, tiling.getDepth());
+        assertEquals(8, tiling.getBuiltDepth());
+
+        assertSameTiles(deep, tiling.setDepth(8), "depth 8");
+    }
+
+    @Test
+    void cancellingKeepsFinishedLevels() {
+        RefinableTiling tiling = new RefinableTiling(PenroseTiling.BASE_LENGTH);
+        tiling.setDepth(4);
+
+        assertNull(tiling.setDepth(10, () -> true));
+        assertEquals(4, tiling.getDepth());
+        assertEquals(4, tiling.getBuiltDepth());
+    }
+
+    @Test
+    void trimFreesDeeperLevels() {
+        RefinableTiling tiling = new RefinableTiling(PenroseTiling.BASE_LENGTH);
+        TileBuffer shallow = tiling.setDepth(5);
+        tiling.setDepth(8);
+
+        tiling.trim(5);
+        assertEquals(5, tiling.getDepth());
+        assertEquals(5, tiling.getBuiltDepth());
+        assertSameTiles(shallow, tiling.getLeaves(), "depth 5");
+    }
+}
@@ -0,0 +1,43 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SubsectionTest {
+    private static final int BASE_LENGTH = PenroseTiling.BASE_LENGTH;
+    private static final int SEEDS = 2000;
+
+    @Test
+    void everyBufferInRangePicksASquare() {
+        int triHeight = TileBuffer.rootHeight(BASE_LENGTH);
+        for (int buffer = 3; 2 * buffer < triHeight; buffer += 7)
+            for (long seed = 0; seed < 50; seed++)
+                Subsection.random(new Random(seed), BASE_LENGTH, buffer);
+    }
+
+    @Test
+    void sideStaysWithinLengths() {
+        for (long seed = 0; seed < SEEDS; seed++) {
+            Subsection section = Subsection.random(new Random(seed), BASE_LENGTH, 60, 100, 200);
+            assertTrue(section.getRectLength() >= 100 && section.getRectLength() <= 200,
+                    "seed " + seed + " gave " + section.getRectLength());
+        }
+    }
+
+    @Test
+    void rejectsArgumentsOutOfRange() {
+        int triHeight = TileBuffer.rootHeight(BASE_LENGTH);
+
+        assertThrows(IllegalArgumentException.class, () -> Subsection.checkArguments(BASE_LENGTH, 2, 1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> Subsection.checkArguments(BASE_LENGTH, (triHeight + 1) / 2, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> Subsection.checkArguments(BASE_LENGTH, 60, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> Subsection.checkArguments(BASE_LENGTH, 60, 20, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> Subsection.checkArguments(BASE_LENGTH, 60, triHeight, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,150 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SubstitutionRulesTest {
+    private static final int DEPTH = 12;
+    private static final int RHOMB_DEPTH = 8;
+
+    // The kite/dart table run through the table kernel instead of TileBuffer.subdivide
+    private static final SubstitutionRules KITE_DART_TABLE = new SubstitutionRules("kite/dart table", 0, 2,
+            SubstitutionRules.KITE_DART_TABLE);
+
+    // The table kernel weighs the parent's corners per child instead of reusing TileBuffer.subdivide's shared points,
+    // so the two drift apart by a few ulps every level
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void kiteDartTableMatchesTileBuffer() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+        assertCloseLevels(TileBuffer.buildLevels(rootTri, DEPTH, null),
+                KITE_DART_TABLE.buildLevels(rootTri, DEPTH, null));
+    }
+
+    @Test
+    void kiteDartTableMatchesTileBufferInRectangle() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+
+        assertCloseLevels(TileBuffer.buildLevels(rootTri, DEPTH, section::overlapping),
+                KITE_DART_TABLE.buildLevels(rootTri, DEPTH, section::overlapping));
+    }
+
+    @Test
+    void rhombChildrenTileTheirParent() {
+        SubstitutionRules rules = SubstitutionRules.RHOMB;
+        TileBuffer[] levels = rules.buildLevels(rules.rootTri(PenroseTiling.BASE_LENGTH), RHOMB_DEPTH, null);
+
+        byte[] childTypes = new byte[rules.getMaxChildren()];
+        double[] children = new double[rules.getMaxChildren() * TileBuffer.STRIDE];
+        for (int level = 0; level < RHOMB_DEPTH; level++) {
+            TileBuffer parents = levels[level];
+            for (int i = 0; i < parents.size(); i++) {
+                int o = i * TileBuffer.STRIDE;
+                int count = rules.subdivide(parents.type(i), parents.coords(), o, childTypes, children, 0, null);
+                double parentArea = area(parents.coords(), o);
+
+                double childArea = 0;
+                for (int child = 0; child < count; child++) {
+                    childArea += area(children, child * TileBuffer.STRIDE);
+
+                    for (int p = 0; p < 3; p++)
+                        assertInside(parents.coords(), o, children[child * TileBuffer.STRIDE + 2 * p],
+                                children[child * TileBuffer.STRIDE + 2 * p + 1], "level " + level + " tile " + i);
+                }
+
+                assertEquals(parentArea, childArea, parentArea * 1e-9, "level " + level + " tile " + i);
+            }
+        }
+    }
+
+    @Test
+    void rhombHalvesHaveTheirAnglesAtP1() {
+        SubstitutionRules rules = SubstitutionRules.RHOMB;
+
+        // TileBuffer.rootTri rounds its height to a whole pixel, so the angles are checked below an exact root
+        TileBuffer rootTri = new TileBuffer(1);
+        rootTri.add(TileTypes.THICK_RHOMB, 0, 0, 1, 0, Math.cos(3 * Math.PI / 5), Math.sin(3 * Math.PI / 5));
+
+        for (TileBuffer level : rules.buildLevels(rootTri, RHOMB_DEPTH, null))
+            for (int i = 0; i < level.size(); i++) {
+                double expected = level.type(i) == TileTypes.THIN_RHOMB ? 36 : 108;
+                assertEquals(expected, angleAtP1(level.coords(), i * TileBuffer.STRIDE), 1e-6, "tile " + i);
+            }
+    }
+
+    @Test
+    void kiteDartNodeCountMatchesStatistics() {
+        for (int depth = 0; depth <= 40; depth++)
+            assertEquals(TilingStatistics.nodeCount(2, depth), SubstitutionRules.KITE_DART.nodeCount(depth),
+                    "depth " + depth);
+    }
+
+    @Test
+    void nodeCountMatchesBuild() {
+        for (SubstitutionRules rules : new SubstitutionRules[]{SubstitutionRules.KITE_DART, SubstitutionRules.RHOMB}) {
+            TileBuffer[] levels = rules.buildLevels(rules.rootTri(PenroseTiling.BASE_LENGTH), DEPTH, null);
+
+            long built = 0;
+            for (TileBuffer level : levels)
+                built += level.size();
+
+            assertEquals(BigInteger.valueOf(built), rules.nodeCount(DEPTH), rules.getName());
+        }
+    }
+
+    private static void assertCloseLevels(TileBuffer[] expected, TileBuffer[] actual) {
+        assertEquals(expected.length, actual.length, "levels");
+        for (int level = 0; level < expected.length; level++) {
+            assertEquals(expected[level].size(), actual[level].size(), "level " + level);
+            for (int i = 0; i < expected[level].size(); i++) {
+                assertEquals(expected[level].type(i), actual[level].type(i), "level " + level + " tile " + i);
+                for (int p = 0; p < 3; p++) {
+                    assertEquals(expected[level].x(i, p), actual[level].x(i, p), TOLERANCE,
+                            "level " + level + " tile " + i);
+                    assertEquals(expected[level].y(i, p), actual[level].y(i, p), TOLERANCE,
+                            "level " + level + " tile " + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a point is inside or on the edge of the triangle at pts[offset]
+     */
+    private static void assertInside(double[] pts, int offset, double x, double y, String message) {
+        double x1 = pts[offset];
+        double y1 = pts[offset + 1];
+        double ux = pts[offset + 2] - x1;
+        double uy = pts[offset + 3] - y1;
+        double vx = pts[offset + 4] - x1;
+        double vy = pts[offset + 5] - y1;
+        double det = ux * vy - uy * vx;
+        double u = ((x - x1) * vy - (y - y1) * vx) / det;
+        double v = (ux * (y - y1) - uy * (x - x1)) / det;
+
+        assertTrue(u >= -TOLERANCE && v >= -TOLERANCE && u + v <= 1 + TOLERANCE, message);
+    }
+
+    private static double area(double[] pts, int offset) {
+        return Math.abs((pts[offset + 2] - pts[offset]) * (pts[offset + 5] - pts[offset + 1]) -
+                (pts[offset + 3] - pts[offset + 1]) * (pts[offset + 4] - pts[offset])) / 2;
+    }
+
+    /**
+     * @return the angle between p1's two edges, in degrees
+     */
+    private static double angleAtP1(double[] pts, int offset) {
+        double ux = pts[offset + 2] - pts[offset];
+        double uy = pts[offset + 3] - pts[offset + 1];
+        double vx = pts[offset + 4] - pts[offset];
+        double vy = pts[offset + 5] - pts[offset + 1];
+        return Math.toDegrees(Math.acos((ux * vx + uy * vy) / Math.hypot(ux, uy) / Math.hypot(vx, vy)));
+    }
+}
@@ -0,0 +1,71 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tiling.TileAssertions.assertSameTilesUnordered;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SubtreeTemplateCacheTest {
+    private static final int SECTIONS = 10;
+    private static final long SEED = 11;
+
+    // Stamped points go through an affine map instead of the subdivision, so they are off by a few ulps
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void stampedBuildHasTheSameTriangles() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        SubtreeTemplateCache templates = new SubtreeTemplateCache(64L << 20);
+        Random r = new Random(SEED);
+
+        for (int n = 0; n < SECTIONS; n++) {
+            Subsection section = Subsection.random(r, PenroseTiling.BASE_LENGTH, 60);
+            int depth = section.getDepth();
+
+            assertSameLevels(TileBuffer.buildLevels(rootTri, depth, section::overlapping),
+                    templates.buildLevels(rootTri, depth, section::overlapping, section::inside));
+        }
+    }
+
+    @Test
+    void parallelStampedBuildHasTheSameTriangles() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        ParallelTileBuilder builder = new ParallelTileBuilder(4, 64, new SubtreeTemplateCache(64L << 20));
+        Random r = new Random(SEED);
+
+        try {
+            for (int n = 0; n < SECTIONS; n++) {
+                Subsection section = Subsection.random(r, PenroseTiling.BASE_LENGTH, 60);
+                int depth = section.getDepth();
+
+                assertSameLevels(TileBuffer.buildLevels(rootTri, depth, section::overlapping),
+                        builder.build(rootTri, depth, section::overlapping, section::inside));
+            }
+        } finally {
+            builder.shutdown();
+        }
+    }
+
+    @Test
+    void generatorPathHasTheSameTriangles() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        PenroseTiling tiling = new PenroseTiling(4);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 250, 300, 400);
+        int depth = section.getDepth();
+
+        try {
+            assertSameLevels(TileBuffer.buildLevels(rootTri, depth, section::overlapping),
+                    tiling.buildPenroseTiles(rootTri, depth, section::overlapping, section::inside));
+        } finally {
+            tiling.shutdown();
+        }
+    }
+
+    private static void assertSameLevels(TileBuffer[] expected, TileBuffer[] actual) {
+        assertEquals(expected.length, actual.length, "levels");
+        for (int level = 0; level < expected.length; level++)
+            assertSameTilesUnordered(expected[level], actual[level], TOLERANCE, "level " + level);
+    }
+}
@@ -0,0 +1,165 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TileAddressTest {
+    private static final int DEPTH = 10;
+    private static final int POINTS = 50;
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static final TileBuffer ROOT = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+
+    @Test
+    void locatedTileHoldsPointAndIsBuilt() {
+        TileBuffer leaves = TileBuffer.buildLevels(ROOT, DEPTH, null)[DEPTH];
+        Random r = new Random(22);
+
+        for (int n = 0; n < POINTS; n++) {
+            double[] point = randomPoint(r);
+            TileAddress address = TileAddress.locate(ROOT, point[0], point[1], DEPTH);
+            assertNotNull(address, "point " + n);
+            assertEquals(DEPTH, address.getDepth());
+
+            TileBuffer tile = address.tile(ROOT);
+            assertEquals(address.getType(), tile.type(0));
+
+            double[] local = barycentric(tile, 0, point[0], point[1]);
+            assertTrue(local[0] >= -TOLERANCE && local[1] >= -TOLERANCE && local[0] + local[1] <= 1 + TOLERANCE,
+                    "point " + n + " outside " + address);
+
+            boolean found = false;
+            for (int i = 0; i < leaves.size() && !found; i++)
+                found = sameTile(leaves, i, tile, 0);
+            assertTrue(found, address + " not in the build");
+        }
+    }
+
+    @Test
+    void parseRoundTrips() {
+        Random r = new Random(22);
+
+        for (int n = 0; n < POINTS; n++) {
+            double[] point = randomPoint(r);
+            TileAddress address = TileAddress.locate(ROOT, point[0], point[1], DEPTH);
+
+            TileAddress parsed = TileAddress.parse(address.toString());
+            assertEquals(address, parsed);
+            assertEquals(address.hashCode(), parsed.hashCode());
+            assertEquals(address.toString(), parsed.toString());
+        }
+
+        assertEquals(new TileAddress(2, new byte[0]), TileAddress.parse("2:"));
+    }
+
+    @Test
+    void pointOutsideRootIsNull() {
+        double height = TileBuffer.rootHeight(PenroseTiling.BASE_LENGTH);
+
+        assertNull(TileAddress.locate(ROOT, -1, -1, DEPTH));
+        assertNull(TileAddress.locate(ROOT, PenroseTiling.BASE_LENGTH / 2., -1, DEPTH));
+        assertNull(TileAddress.locate(ROOT, PenroseTiling.BASE_LENGTH / 2., height + 1, DEPTH));
+        assertNull(TileAddress.locate(ROOT, 1, 1, DEPTH));
+        assertNull(TileAddress.locate(ROOT, PenroseTiling.BASE_LENGTH + 1, height, DEPTH));
+    }
+
+    @Test
+    void neighbourhoodHasTheShapeOfTheSubtree() {
+        Random r = new Random(22);
+
+        for (int n = 0; n < 10; n++) {
+            double[] point = randomPoint(r);
+            TileAddress address = TileAddress.locate(ROOT, point[0], point[1], DEPTH);
+
+            for (int levelsUp = 0; levelsUp <= 5; levelsUp++) {
+                TileBuffer ancestor = address.parent(levelsUp).tile(ROOT);
+                TileBuffer subtree = TileBuffer.buildLevels(ancestor, levelsUp, null)[levelsUp];
+                TileBuffer neighbourhood = address.neighbourhood(levelsUp);
+
+                // The root's height is rounded to a whole pixel, so the subtree is compared through the affine map
+                // from the ancestor onto its local frame rather than a similarity
+                TileBuffer frame = address.parent(levelsUp).localTile(0);
+                TileBuffer mapped = toFrame(subtree, ancestor, frame);
+
+                assertEquals(mapped.size(), neighbourhood.size(), address + " up " + levelsUp);
+                for (int i = 0; i < mapped.size(); i++)
+                    assertTrue(sameTile(mapped, i, neighbourhood, i), address + " up " + levelsUp + " tile " + i);
+
+                TileBuffer local = toFrame(address.tile(ROOT), ancestor, frame);
+                assertTrue(sameTile(local, 0, address.localTile(levelsUp), 0), address + " up " + levelsUp);
+            }
+        }
+    }
+
+    /**
+     * @return a point in the root, picked uniformly
+     */
+    private static double[] randomPoint(Random r) {
+        double u = r.nextDouble();
+        double v = r.nextDouble();
+        if (u + v > 1) {
+            u = 1 - u;
+            v = 1 - v;
+        }
+
+        double x1 = ROOT.x(0, 0);
+        double y1 = ROOT.y(0, 0);
+        return new double[]{x1 + u * (ROOT.x(0, 1) - x1) + v * (ROOT.x(0, 2) - x1),
+                y1 + u * (ROOT.y(0, 1) - y1) + v * (ROOT.y(0, 2) - y1)};
+    }
+
+    /**
+     * @return the point as (u, v) in the frame p1 + u * (p2 - p1) + v * (p3 - p1) of triangle i
+     */
+    private static double[] barycentric(TileBuffer tiles, int i, double x, double y) {
+        double x1 = tiles.x(i, 0);
+        double y1 = tiles.y(i, 0);
+        double ux = tiles.x(i, 1) - x1;
+        double uy = tiles.y(i, 1) - y1;
+        double vx = tiles.x(i, 2) - x1;
+        double vy = tiles.y(i, 2) - y1;
+        double det = ux * vy - uy * vx;
+        return new double[]{((x - x1) * vy - (y - y1) * vx) / det, (ux * (y - y1) - uy * (x - x1)) / det};
+    }
+
+    /**
+     * Maps every triangle of tiles through the affine map that takes the first triangle of from onto the first of to
+     */
+    private static TileBuffer toFrame(TileBuffer tiles, TileBuffer from, TileBuffer to) {
+        double x1 = to.x(0, 0);
+        double y1 = to.y(0, 0);
+        double ux = to.x(0, 1) - x1;
+        double uy = to.y(0, 1) - y1;
+        double vx = to.x(0, 2) - x1;
+        double vy = to.y(0, 2) - y1;
+
+        TileBuffer mapped = new TileBuffer(tiles.size());
+        double[] pts = new double[TileBuffer.STRIDE];
+        for (int i = 0; i < tiles.size(); i++) {
+            for (int p = 0; p < 3; p++) {
+                double[] local = barycentric(from, 0, tiles.x(i, p), tiles.y(i, p));
+                pts[2 * p] = x1 + local[0] * ux + local[1] * vx;
+                pts[2 * p + 1] = y1 + local[0] * uy + local[1] * vy;
+            }
+            mapped.add(tiles.type(i), pts[0], pts[1], pts[2], pts[3], pts[4], pts[5]);
+        }
+        return mapped;
+    }
+
+    private static boolean sameTile(TileBuffer a, int i, TileBuffer b, int j) {
+        if (a.type(i) != b.type(j))
+            return false;
+
+        for (int p = 0; p < 3; p++)
+            if (Math.abs(a.x(i, p) - b.x(j, p)) > TOLERANCE || Math.abs(a.y(i, p) - b.y(j, p)) > TOLERANCE)
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TileAdjacencyTest {
+    private static final int DEPTH = 9;
+
+    @Test
+    void graphIsSymmetric() {
+        assertSymmetric(graph(null));
+        assertSymmetric(graph(new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200)::overlapping));
+    }
+
+    @Test
+    void degreesAreBoundedByCorners() {
+        TileMesh mesh = mesh(null);
+        TileAdjacency graph = TileAdjacency.build(mesh);
+
+        assertEquals(mesh.polygonCount(), graph.nodeCount());
+
+        // A whole tile has 4 edges to share and a lone half has 2 besides the one its mirror would have had
+        int full = 0;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            int limit = mesh.cornerCount(node) == 4 ? 4 : 2;
+            assertTrue(graph.degree(node) <= limit, "node " + node + " has degree " + graph.degree(node));
+            if (graph.degree(node) == 4)
+                full++;
+        }
+
+        // Only tiles along the root's edge can miss a neighbour
+        assertTrue(full > graph.nodeCount() / 2, full + " of " + graph.nodeCount());
+    }
+
+    @Test
+    void edgeCountIsHalfTheDegrees() {
+        TileAdjacency graph = graph(null);
+
+        int degrees = 0;
+        for (int node = 0; node < graph.nodeCount(); node++)
+            degrees += graph.degree(node);
+
+        assertEquals(degrees, 2 * graph.edgeCount());
+        assertEquals(degrees, graph.offsets()[graph.nodeCount()]);
+        assertEquals(degrees, graph.neighbours().length);
+    }
+
+    /**
+     * Checks that there are no self loops and that b appears among a's neighbours as often as a among b's
+     */
+    private static void assertSymmetric(TileAdjacency graph) {
+        for (int a = 0; a < graph.nodeCount(); a++)
+            for (int i = 0; i < graph.degree(a); i++) {
+                int b = graph.neighbour(a, i);
+                assertNotEquals(a, b, "self loop");
+                assertEquals(count(graph, a, b), count(graph, b, a), a + " and " + b);
+            }
+    }
+
+    private static int count(TileAdjacency graph, int node, int neighbour) {
+        int count = 0;
+        for (int i = 0; i < graph.degree(node); i++)
+            if (graph.neighbour(node, i) == neighbour)
+                count++;
+        return count;
+    }
+
+    private static TileAdjacency graph(TileBuffer.CheckTile setTri) {
+        return TileAdjacency.build(mesh(setTri));
+    }
+
+    private static TileMesh mesh(TileBuffer.CheckTile setTri) {
+        return TileMesh.build(TileBuffer.buildLevels(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH), DEPTH,
+                setTri)[DEPTH]);
+    }
+}
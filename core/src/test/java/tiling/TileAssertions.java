@@ -0,0 +1,65 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Assertions shared by the tests that check a fast build against the straightforward one
+ */
+final class TileAssertions {
+    private TileAssertions() {
+    }
+
+    /**
+     * Checks two builds hold the same triangles in the same order, down to the last bit of every coordinate
+     */
+    static void assertSameLevels(TileBuffer[] expected, TileBuffer[] actual) {
+        assertEquals(expected.length, actual.length, "levels");
+        for (int level = 0; level < expected.length; level++)
+            assertSameTiles(expected[level], actual[level], "level " + level);
+    }
+
+    static void assertSameTiles(TileBuffer expected, TileBuffer actual, String message) {
+        assertEquals(expected.size(), actual.size(), message + " size");
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.type(i), actual.type(i), message + " type of tile " + i);
+        assertArrayEquals(Arrays.copyOf(expected.coords(), expected.size() * TileBuffer.STRIDE),
+                Arrays.copyOf(actual.coords(), actual.size() * TileBuffer.STRIDE), message + " coords");
+    }
+
+    /**
+     * Checks two buffers hold the same triangles, in any order, with every coordinate within tolerance. Triangles are
+     * put in order by type and by their centroid on a grid much coarser than tolerance, so rounding can't swap them
+     */
+    static void assertSameTilesUnordered(TileBuffer expected, TileBuffer actual, double tolerance, String message) {
+        assertEquals(expected.size(), actual.size(), message + " size");
+
+        List<Integer> expectedOrder = centroidOrder(expected);
+        List<Integer> actualOrder = centroidOrder(actual);
+        for (int n = 0; n < expected.size(); n++) {
+            int e = expectedOrder.get(n);
+            int a = actualOrder.get(n);
+            assertEquals(expected.type(e), actual.type(a), message + " type of tile " + n);
+            for (int point = 0; point < 3; point++) {
+                assertEquals(expected.x(e, point), actual.x(a, point), tolerance, message + " x of tile " + n);
+                assertEquals(expected.y(e, point), actual.y(a, point), tolerance, message + " y of tile " + n);
+            }
+        }
+    }
+
+    private static List<Integer> centroidOrder(TileBuffer tiles) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < tiles.size(); i++)
+            order.add(i);
+
+        order.sort(Comparator.<Integer>comparingInt(tiles::type)
+                .thenComparingLong(i -> Math.round(1e6 * (tiles.x(i, 0) + tiles.x(i, 1) + tiles.x(i, 2))))
+                .thenComparingLong(i -> Math.round(1e6 * (tiles.y(i, 0) + tiles.y(i, 1) + tiles.y(i, 2)))));
+        return order;
+    }
+}
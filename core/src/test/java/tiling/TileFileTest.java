@@ -0,0 +1,153 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tiling.TileAssertions.assertSameTiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TileFileTest {
+    private static final int DEPTH = 12;
+
+    // float offsets from p1 keep about 7 digits of the tile's size
+    private static final double DELTA_TOLERANCE = 1e-5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void levelsRoundTrip() throws IOException {
+        TileBuffer[] levels = build();
+        Path file = dir.resolve("levels.tiles");
+        try (TileFileWriter writer = new TileFileWriter(file, 0)) {
+            writer.writeLevel(DEPTH - 1, levels[DEPTH - 1]);
+            writer.writeLevel(DEPTH, levels[DEPTH]);
+        }
+
+        try (TileFileReader reader = new TileFileReader(file)) {
+            assertEquals(2, reader.getLevelCount());
+            assertEquals(DEPTH - 1, reader.getDepth(0));
+            assertEquals(DEPTH, reader.getDepth(1));
+            assertEquals(levels[DEPTH - 1].size(), reader.getTileCount(0));
+            assertEquals(levels[DEPTH].size(), reader.getTileCount(1));
+
+            assertSameTiles(levels[DEPTH - 1], reader.readLevel(0), "level " + (DEPTH - 1));
+            assertSameTiles(levels[DEPTH], reader.readLevel(1), "level " + DEPTH);
+        }
+    }
+
+    @Test
+    void deltasRoundTripWithinTolerance() throws IOException {
+        TileBuffer tiles = build()[DEPTH];
+        Path file = dir.resolve("deltas.tiles");
+        try (TileFileWriter writer = new TileFileWriter(file, TileFileWriter.DELTAS)) {
+            writer.writeLevel(DEPTH, tiles);
+        }
+
+        try (TileFileReader reader = new TileFileReader(file)) {
+            TileBuffer read = reader.readLevel(0);
+            assertEquals(tiles.size(), read.size());
+            for (int i = 0; i < tiles.size(); i++) {
+                assertEquals(tiles.type(i), read.type(i), "tile " + i);
+
+                // p1 is stored as doubles
+                assertEquals(tiles.x(i, 0), read.x(i, 0), "tile " + i);
+                assertEquals(tiles.y(i, 0), read.y(i, 0), "tile " + i);
+                for (int p = 1; p < 3; p++) {
+                    assertEquals(tiles.x(i, p), read.x(i, p), DELTA_TOLERANCE, "tile " + i);
+                    assertEquals(tiles.y(i, p), read.y(i, p), DELTA_TOLERANCE, "tile " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rectangleReadMatchesOverlapping() throws IOException {
+        TileBuffer tiles = build()[DEPTH];
+        Path file = dir.resolve("rectangles.tiles");
+        try (TileFileWriter writer = new TileFileWriter(file, 0)) {
+            writer.writeLevel(DEPTH, tiles);
+        }
+
+        Random r = new Random(5);
+        try (TileFileReader reader = new TileFileReader(file)) {
+            for (int trial = 0; trial < 30; trial++) {
+                double rectLength = 20 + r.nextDouble() * 300;
+                double rectX = r.nextDouble() * (PenroseTiling.BASE_LENGTH - rectLength);
+                double rectY = r.nextDouble() * (PenroseTiling.BASE_LENGTH - rectLength);
+
+                TileBuffer expected = new TileBuffer();
+                for (int i = 0; i < tiles.size(); i++)
+                    if (KDPenroseTri.overlapping(tiles.coords(), i * TileBuffer.STRIDE, rectX, rectY, rectLength))
+                        add(expected, tiles.type(i), tiles.coords(), i * TileBuffer.STRIDE);
+
+                TileBuffer read = new TileBuffer();
+                reader.read(0, true, rectX, rectY, rectLength, collect(read));
+
+                assertSameTiles(expected, read, "rectangle " + trial);
+            }
+        }
+    }
+
+    @Test
+    void walkerStreamsIntoFile() throws IOException {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Path file = dir.resolve("walked.tiles");
+        try (TileFileWriter writer = new TileFileWriter(file, 0)) {
+            writer.startLevel(DEPTH);
+            TileWalker.walk(rootTri, DEPTH, null, false, writer);
+        }
+
+        try (TileFileReader reader = new TileFileReader(file)) {
+            assertEquals(1, reader.getLevelCount());
+            assertEquals(DEPTH, reader.getDepth(0));
+            assertSameTiles(build()[DEPTH], reader.readLevel(0), "walked level");
+        }
+    }
+
+    @Test
+    void emptyLevel() throws IOException {
+        Path file = dir.resolve("empty-level.tiles");
+        try (TileFileWriter writer = new TileFileWriter(file, TileFileWriter.DELTAS)) {
+            writer.startLevel(3);
+        }
+
+        try (TileFileReader reader = new TileFileReader(file)) {
+            assertEquals(1, reader.getLevelCount());
+            assertEquals(3, reader.getDepth(0));
+            assertEquals(0, reader.getTileCount(0));
+            assertEquals(0, reader.readLevel(0).size());
+
+            TileBuffer read = new TileBuffer();
+            reader.read(0, true, 0, 0, PenroseTiling.BASE_LENGTH, collect(read));
+            assertEquals(0, read.size());
+        }
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        Path file = dir.resolve("empty.tiles");
+        new TileFileWriter(file, 0).close();
+
+        try (TileFileReader reader = new TileFileReader(file)) {
+            assertEquals(0, reader.getLevelCount());
+        }
+    }
+
+    private static TileBuffer[] build() {
+        return TileBuffer.buildLevels(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH), DEPTH, null);
+    }
+
+    private static TileVisitor collect(TileBuffer into) {
+        return (type, coords, offset, depth, leaf) -> add(into, type, coords, offset);
+    }
+
+    private static void add(TileBuffer into, int type, double[] coords, int offset) {
+        into.add(type, coords[offset], coords[offset + 1], coords[offset + 2], coords[offset + 3], coords[offset + 4],
+                coords[offset + 5]);
+    }
+}
@@ -0,0 +1,88 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TileMeshTest {
+    private static final int DEPTH = 9;
+
+    @Test
+    void mergedPolygonsHaveFourCorners() {
+        TileMesh mesh = TileMesh.build(leaves(null));
+
+        int merged = 0;
+        for (int polygon = 0; polygon < mesh.polygonCount(); polygon++) {
+            byte shape = mesh.shape(polygon);
+            boolean whole = shape == TileMesh.KITE || shape == TileMesh.DART || shape == TileMesh.THIN_RHOMB ||
+                    shape == TileMesh.THICK_RHOMB;
+            assertEquals(whole ? 4 : 3, mesh.cornerCount(polygon), "polygon " + polygon);
+            if (whole)
+                merged++;
+        }
+
+        // Only halves along the root's edge can be missing their mirror
+        assertTrue(merged > mesh.polygonCount() * 9 / 10, merged + " of " + mesh.polygonCount());
+    }
+
+    @Test
+    void everyTriangleIsInOnePolygon() {
+        assertTrianglesCovered(TileMesh.build(leaves(null)));
+    }
+
+    @Test
+    void everyTriangleIsInOnePolygonInRectangle() {
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+        assertTrianglesCovered(TileMesh.build(leaves(section::overlapping)));
+    }
+
+    @Test
+    void verticesAreShared() {
+        TileBuffer tiles = leaves(null);
+        TileMesh mesh = TileMesh.build(tiles);
+
+        assertEquals(tiles.size(), mesh.triangleCount());
+        assertTrue(mesh.vertexCount() < 3 * mesh.triangleCount(),
+                mesh.vertexCount() + " vertices for " + mesh.triangleCount() + " triangles");
+
+        // Each vertex sits on a corner of one of the triangles it came from
+        for (int triangle = 0; triangle < mesh.triangleCount(); triangle++)
+            for (int point = 0; point < 3; point++) {
+                int vertex = mesh.triangleVertex(triangle, point);
+                assertEquals(tiles.x(triangle, point), mesh.vertexX(vertex), 1e-6);
+                assertEquals(tiles.y(triangle, point), mesh.vertexY(vertex), 1e-6);
+            }
+    }
+
+    /**
+     * Checks that every polygon holds two triangles if whole and one if a half, and that each triangle's corners are
+     * corners of its polygon
+     */
+    private static void assertTrianglesCovered(TileMesh mesh) {
+        int[] members = new int[mesh.polygonCount()];
+        for (int triangle = 0; triangle < mesh.triangleCount(); triangle++) {
+            int polygon = mesh.polygonOf(triangle);
+            members[polygon]++;
+
+            for (int point = 0; point < 3; point++) {
+                int vertex = mesh.triangleVertex(triangle, point);
+                boolean found = false;
+                for (int corner = 0; corner < mesh.cornerCount(polygon); corner++)
+                    found |= mesh.corner(polygon, corner) == vertex;
+                assertTrue(found, "triangle " + triangle + " point " + point);
+            }
+        }
+
+        int total = 0;
+        for (int polygon = 0; polygon < mesh.polygonCount(); polygon++) {
+            assertEquals(mesh.cornerCount(polygon) == 4 ? 2 : 1, members[polygon], "polygon " + polygon);
+            total += members[polygon];
+        }
+        assertEquals(mesh.triangleCount(), total);
+    }
+
+    private static TileBuffer leaves(TileBuffer.CheckTile setTri) {
+        return TileBuffer.buildLevels(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH), DEPTH, setTri)[DEPTH];
+    }
+}
@@ -0,0 +1,57 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tiling.TileAssertions.assertSameTiles;
+
+import org.junit.jupiter.api.Test;
+
+class TileWalkerTest {
+    private static final int DEPTH = 10;
+
+    @Test
+    void leavesComeOutInBuildLevelsOrder() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        TileBuffer leaves = new TileBuffer();
+        TileWalker.walk(rootTri, DEPTH, null, false, collect(leaves));
+
+        assertSameTiles(TileBuffer.buildLevels(rootTri, DEPTH, null)[DEPTH], leaves, "leaves");
+    }
+
+    @Test
+    void leavesComeOutInBuildLevelsOrderInRectangle() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+        TileBuffer leaves = new TileBuffer();
+        TileWalker.walk(rootTri, DEPTH, section::overlapping, false, collect(leaves));
+
+        assertSameTiles(TileBuffer.buildLevels(rootTri, DEPTH, section::overlapping)[DEPTH], leaves, "leaves");
+    }
+
+    @Test
+    void interiorCountsMatchUpperLevels() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Subsection section = new Subsection(PenroseTiling.BASE_LENGTH, 300, 150, 200);
+        TileBuffer[] levels = TileBuffer.buildLevels(rootTri, DEPTH, section::overlapping);
+
+        int[] interior = new int[DEPTH + 1];
+        int[] leaves = new int[1];
+        TileWalker.walk(rootTri, DEPTH, section::overlapping, true, (type, coords, offset, depth, leaf) -> {
+            if (leaf) {
+                assertEquals(DEPTH, depth);
+                leaves[0]++;
+            } else {
+                interior[depth]++;
+            }
+        });
+
+        for (int level = 0; level < DEPTH; level++)
+            assertEquals(levels[level].size(), interior[level], "level " + level);
+        assertEquals(0, interior[DEPTH]);
+        assertEquals(levels[DEPTH].size(), leaves[0]);
+    }
+
+    private static TileVisitor collect(TileBuffer into) {
+        return (type, coords, offset, depth, leaf) -> into.add(type, coords[offset], coords[offset + 1],
+                coords[offset + 2], coords[offset + 3], coords[offset + 4], coords[offset + 5]);
+    }
+}
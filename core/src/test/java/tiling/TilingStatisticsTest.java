@@ -0,0 +1,76 @@
+package tiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TilingStatisticsTest {
+    private static final int DEPTH = 12;
+    private static final int SECTIONS = 30;
+    private static final long SEED = 5;
+
+    @Test
+    void countsMatchBuild() {
+        for (int rootType = 0; rootType < 4; rootType++) {
+            TileBuffer rootTri = new TileBuffer(1);
+            rootTri.add(rootType, 0, 0, 1, 0, 0, 1);
+            TileBuffer[] levels = TileBuffer.buildLevels(rootTri, DEPTH, null);
+
+            for (int depth = 0; depth <= DEPTH; depth++) {
+                long[] built = new long[4];
+                for (int i = 0; i < levels[depth].size(); i++)
+                    built[levels[depth].type(i)]++;
+
+                BigInteger[] counts = TilingStatistics.typeCounts(rootType, depth);
+                for (int type = 0; type < 4; type++)
+                    assertEquals(BigInteger.valueOf(built[type]), counts[type],
+                            "root " + rootType + " depth " + depth + " type " + type);
+
+                assertEquals(BigInteger.valueOf(levels[depth].size()), TilingStatistics.leafCount(rootType, depth));
+                assertEquals(BigInteger.valueOf(nodes(levels, depth)), TilingStatistics.nodeCount(rootType, depth));
+            }
+        }
+    }
+
+    @Test
+    void countInRectangleMatchesFilteredBuild() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        Random r = new Random(SEED);
+
+        for (int n = 0; n < SECTIONS; n++) {
+            Subsection section = Subsection.random(r, PenroseTiling.BASE_LENGTH, 60);
+            int depth = section.getDepth();
+            TileBuffer[] levels = TileBuffer.buildLevels(rootTri, depth, section::overlapping);
+
+            BigInteger[] counts = TilingStatistics.countInRectangle(rootTri, depth, section.getRectX(),
+                    section.getRectY(), section.getRectLength());
+            assertEquals(BigInteger.valueOf(levels[depth].size()), counts[0], "section " + n + " base tiles");
+            assertEquals(BigInteger.valueOf(nodes(levels, depth)), counts[1], "section " + n + " triangles");
+        }
+    }
+
+    @Test
+    void tileAreasMatchBuild() {
+        TileBuffer rootTri = TileBuffer.rootTri(PenroseTiling.BASE_LENGTH);
+        TileBuffer tiles = TileBuffer.buildLevels(rootTri, DEPTH, null)[DEPTH];
+
+        double[] areas = TilingStatistics.tileAreas(rootTri.type(0), area(rootTri, 0), DEPTH);
+        for (int i = 0; i < tiles.size(); i++)
+            assertEquals(areas[tiles.type(i) < 2 ? 0 : 1], area(tiles, i), 1e-9 * areas[0]);
+    }
+
+    private static long nodes(TileBuffer[] levels, int depth) {
+        long nodes = 0;
+        for (int level = 0; level <= depth; level++)
+            nodes += levels[level].size();
+        return nodes;
+    }
+
+    private static double area(TileBuffer tiles, int i) {
+        return Math.abs((tiles.x(i, 1) - tiles.x(i, 0)) * (tiles.y(i, 2) - tiles.y(i, 0)) -
+                (tiles.x(i, 2) - tiles.x(i, 0)) * (tiles.y(i, 1) - tiles.y(i, 0))) / 2;
+    }
+}
@@ -0,0 +1,50 @@
+package tiling.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import tiling.BatchSubdivider;
+import tiling.GroupedTileBuffer;
+import tiling.PenroseTiling;
+import tiling.TileBuffer;
+
+/**
+ * Only compiled and run with the vector profile
+ */
+class VectorSubdividerTest {
+    private static final int DEPTH = 12;
+
+    @Test
+    void matchesScalarKernelBitForBit() {
+        GroupedTileBuffer rootTri = GroupedTileBuffer.of(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH));
+
+        assertSameLevels(new BatchSubdivider().buildLevels(rootTri, DEPTH),
+                new VectorSubdivider().buildLevels(rootTri, DEPTH));
+    }
+
+    @Test
+    void matchesScalarKernelBitForBitInRectangle() {
+        GroupedTileBuffer rootTri = GroupedTileBuffer.of(TileBuffer.rootTri(PenroseTiling.BASE_LENGTH));
+
+        assertSameLevels(new BatchSubdivider().buildLevels(rootTri, DEPTH, 300, 150, 200),
+                new VectorSubdivider().buildLevels(rootTri, DEPTH, 300, 150, 200));
+    }
+
+    private static void assertSameLevels(GroupedTileBuffer[] expected, GroupedTileBuffer[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int level = 0; level < expected.length; level++) {
+            for (int type = 0; type < 4; type++) {
+                int size = expected[level].size(type);
+                assertEquals(size, actual[level].size(type), "level " + level + " type " + type + " size");
+
+                for (int coordinate = 0; coordinate < TileBuffer.STRIDE; coordinate++)
+                    assertArrayEquals(Arrays.copyOf(expected[level].column(type, coordinate), size),
+                            Arrays.copyOf(actual[level].column(type, coordinate), size),
+                            "level " + level + " type " + type + " coordinate " + coordinate);
+            }
+        }
+    }
+}
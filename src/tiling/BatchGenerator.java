@@ -0,0 +1,126 @@
+package tiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates and exports the random subsections of a range of seeds without starting JavaFX. Each seed picks its
+ * subsection with its own Random, so a seed always gives the same file no matter how many threads run or in what
+ * order they finish
+ * <p>
+ * Usage: BatchGenerator firstSeed lastSeed outputDir [png|svg] [size] [buffer] [threads] [minLength] [maxLength]
+ * <p>
+ * minLength and maxLength bound the side of the subsections in root triangle units. Left out, they default to
+ * buffer / 2 and no limit, which picks the same subsections the window does
+ */
+public class BatchGenerator {
+    // Base length of rootTri. Same as the one the Generator window uses
+    private static final int BASE_LENGTH = PenroseTiling.BASE_LENGTH;
+
+    // Keeps subsections away from the extremes of the triangle and controls their minimum width. Same as the window's
+    private static final int DEFAULT_BUFFER = 60;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.out.println("Usage: BatchGenerator firstSeed lastSeed outputDir [png|svg] [size] [buffer] " +
+                    "[threads] [minLength] [maxLength]");
+            return;
+        }
+
+        System.setProperty("java.awt.headless", "true");
+
+        long firstSeed = Long.parseLong(args[0]);
+        long lastSeed = Long.parseLong(args[1]);
+        File outputDir = new File(args[2]);
+        String format = args.length > 3 ? args[3] : "png";
+        int size = args.length > 4 ? Integer.parseInt(args[4]) : BASE_LENGTH;
+        int buffer = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_BUFFER;
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        int minLength = args.length > 7 ? Integer.parseInt(args[7]) : buffer / 2;
+        int maxLength = args.length > 8 ? Integer.parseInt(args[8]) : Integer.MAX_VALUE;
+
+        if (lastSeed < firstSeed)
+            throw new IllegalArgumentException("Last seed before first seed");
+        if (!format.equals("png") && !format.equals("svg"))
+            throw new IllegalArgumentException("Format has to be png or svg");
+        if (size < 1)
+            throw new IllegalArgumentException("Size less than 1");
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads less than 1");
+
+        // Checked here rather than left to the workers, where it would only come back once every patch is submitted
+        Subsection.checkArguments(BASE_LENGTH, buffer, minLength, maxLength);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs())
+            throw new IOException("Could not create " + outputDir);
+
+        // Every worker builds its patch on its own thread, so the tiling's own pool would only compete with them. The
+        // template cache is still shared
+        PenroseTiling tiling = new PenroseTiling(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        List<Future<Integer>> patches = new ArrayList<>();
+        for (long seed = firstSeed; seed <= lastSeed; seed++) {
+            long patchSeed = seed;
+            patches.add(executor.submit(() -> generate(tiling, patchSeed, buffer, minLength, maxLength, size,
+                    new File(outputDir, "seed-" + patchSeed + "." + format))));
+        }
+
+        long tiles = 0;
+        try {
+            for (Future<Integer> patch : patches)
+                tiles += patch.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Patch failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            tiling.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d patches and %d tiles in %.2f s: %.1f patches/s, %.0f tiles/s%n", patches.size(), tiles,
+                seconds, patches.size() / seconds, tiles / seconds);
+    }
+
+    /**
+     * Builds the subsection a seed picks and writes it scaled to fill the image, like the window's fullscreen option
+     *
+     * @param seed      the seed of the Random the subsection is picked with
+     * @param buffer    keeps the subsection away from the extremes of the triangle
+     * @param minLength the shortest side the subsection can have
+     * @param maxLength the longest side the subsection can have
+     * @param size      width and height of the image in pixels
+     * @param output    the file that will be written. Ends in .svg for an SVG and anything else for a PNG
+     * @return the number of base tiles in the subsection
+     */
+    public static int generate(PenroseTiling tiling, long seed, int buffer, int minLength, int maxLength, int size,
+                               File output) {
+        Subsection section = Subsection.random(new Random(seed), BASE_LENGTH, buffer, minLength, maxLength);
+        int depth = section.getDepth();
+
+        TileBuffer[] levels = tiling.buildPenroseTiles(TileBuffer.rootTri(BASE_LENGTH), depth, section::overlapping,
+                section::inside);
+
+        double scale = (double) size / section.getRectLength();
+        try {
+            if (output.getName().endsWith(".svg"))
+                HeadlessRenderer.renderSvg(levels, false, section.getRectX(), section.getRectY(), scale, size, size,
+                        output);
+            else
+                HeadlessRenderer.renderPng(levels, false, section.getRectX(), section.getRectY(), scale, size, size,
+                        output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return levels[depth].size();
+    }
+}
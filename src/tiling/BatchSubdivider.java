@@ -0,0 +1,290 @@
+package tiling;
+
+/**
+ * Subdivides a whole GroupedTileBuffer at once. Every group follows one partition rule, and every child rank of a
+ * rule always has the same type, so the children of a group go out as contiguous runs appended to their own groups.
+ * The kernels are straight loops over columns with no switch per triangle, which is the shape vector units want
+ * <p>
+ * This class is the scalar kernel. With the vector profile, tiling.vector.VectorSubdivider overrides the loops with
+ * the incubating Vector API and does the same arithmetic in the same order, so both give the same triangles bit for
+ * bit and in the same order. create picks it when it was built and jdk.incubator.vector was added at run time
+ * <p>
+ * Within a group, children come out by the type of their parent, then by their rank among its children, then in their
+ * parent's order. Point for point they are the triangles TileBuffer.subdivide makes, only ordered differently
+ */
+public class BatchSubdivider {
+    // Type of every child rank of every type, in the order TileBuffer.subdivide writes them
+    private static final int[][] CHILD_TYPES = {{2, 1, 0}, {3, 0, 1}, {2, 1}, {3, 0}};
+
+    /**
+     * @return the vector kernel if it is on the class path and jdk.incubator.vector was added, otherwise the scalar
+     * one
+     */
+    public static BatchSubdivider create() {
+        try {
+            return (BatchSubdivider) Class.forName("tiling.vector.VectorSubdivider").getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new BatchSubdivider();
+        }
+    }
+
+    /**
+     * @return what the kernel is, for reports
+     */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Builds the tiling from rootTri down, like TileBuffer.buildLevels(rootTri, depth, null)
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public GroupedTileBuffer[] buildLevels(GroupedTileBuffer rootTri, int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        GroupedTileBuffer[] levels = new GroupedTileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = new GroupedTileBuffer(childCounts(levels[level - 1]));
+            subdivide(levels[level - 1], levels[level]);
+        }
+
+        return levels;
+    }
+
+    /**
+     * Builds the tiling from rootTri down, keeping the triangles that overlap a square. Keeps the same triangles as
+     * TileBuffer.buildLevels with a KDPenroseTri.overlapping filter, so the roots are kept as given
+     *
+     * @param rootTri    the triangles which the function will build tiling in
+     * @param depth      how many generations this method will go down
+     * @param rectX      the left x coordinate of the square
+     * @param rectY      the top y coordinate of the square
+     * @param rectLength the width and height of the square
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public GroupedTileBuffer[] buildLevels(GroupedTileBuffer rootTri, int depth, double rectX, double rectY,
+                                           double rectLength) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        GroupedTileBuffer[] levels = new GroupedTileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        // Reused by every level to hold which triangles the filter keeps
+        boolean[] keep = new boolean[0];
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = new GroupedTileBuffer(childCounts(levels[level - 1]));
+            subdivide(levels[level - 1], levels[level]);
+            keep = filter(levels[level], rectX, rectY, rectLength, keep);
+        }
+
+        return levels;
+    }
+
+    /**
+     * Appends the children of every triangle in level to next
+     *
+     * @param level the triangles to subdivide
+     * @param next  the buffer holding the next level of the tiling
+     */
+    public void subdivide(GroupedTileBuffer level, GroupedTileBuffer next) {
+        int[] counts = childCounts(level);
+        for (int type = 0; type < 4; type++)
+            next.ensureCapacity(type, next.size(type) + counts[type]);
+
+        for (int type = 0; type < 4; type++) {
+            int n = level.size(type);
+            if (n == 0)
+                continue;
+
+            double[][] src = columns(level, type);
+            int[] childTypes = CHILD_TYPES[type];
+            double[][][] dst = new double[childTypes.length][][];
+            int[] offsets = new int[childTypes.length];
+            for (int rank = 0; rank < childTypes.length; rank++) {
+                dst[rank] = columns(next, childTypes[rank]);
+                offsets[rank] = next.size(childTypes[rank]);
+                next.setSize(childTypes[rank], offsets[rank] + n);
+            }
+
+            switch (type) {
+                case 0 -> type0(src, 0, n, dst[0], offsets[0], dst[1], offsets[1], dst[2], offsets[2]);
+                case 1 -> type1(src, 0, n, dst[0], offsets[0], dst[1], offsets[1], dst[2], offsets[2]);
+                case 2 -> type2(src, 0, n, dst[0], offsets[0], dst[1], offsets[1]);
+                case 3 -> type3(src, 0, n, dst[0], offsets[0], dst[1], offsets[1]);
+            }
+        }
+    }
+
+    /**
+     * Drops the triangles of level that don't overlap a square, keeping the order of the rest
+     *
+     * @param keep scratch space for the filter. Replaced if it is too small
+     * @return the scratch space, to be passed in again
+     */
+    private boolean[] filter(GroupedTileBuffer level, double rectX, double rectY, double rectLength,
+                             boolean[] keep) {
+        for (int type = 0; type < 4; type++) {
+            int n = level.size(type);
+            if (keep.length < n)
+                keep = new boolean[n];
+
+            double[][] group = columns(level, type);
+            overlapping(group, 0, n, rectX, rectY, rectLength, keep);
+
+            // Kept triangles are moved down over the dropped ones
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (!keep[i])
+                    continue;
+                if (i != kept)
+                    for (double[] column : group)
+                        column[kept] = column[i];
+                kept++;
+            }
+            level.setSize(type, kept);
+        }
+
+        return keep;
+    }
+
+    /**
+     * @return how many children of each type the triangles of level have
+     */
+    private static int[] childCounts(GroupedTileBuffer level) {
+        int[] counts = new int[4];
+        for (int type = 0; type < 4; type++)
+            for (int child : CHILD_TYPES[type])
+                counts[child] += level.size(type);
+        return counts;
+    }
+
+    private static double[][] columns(GroupedTileBuffer level, int type) {
+        double[][] columns = new double[TileBuffer.STRIDE][];
+        for (int coordinate = 0; coordinate < TileBuffer.STRIDE; coordinate++)
+            columns[coordinate] = level.column(type, coordinate);
+        return columns;
+    }
+
+    /**
+     * Batched overlap test. Must give the same answers as KDPenroseTri.overlapping
+     *
+     * @param group the columns of one group
+     * @param from  the first triangle to test
+     * @param to    the triangle after the last one to test
+     * @param keep  set to whether each triangle overlaps the square
+     */
+    protected void overlapping(double[][] group, int from, int to, double rectX, double rectY, double rectLength,
+                               boolean[] keep) {
+        for (int i = from; i < to; i++)
+            keep[i] = KDPenroseTri.overlapping(group[0][i], group[1][i], group[2][i], group[3][i], group[4][i],
+                    group[5][i], rectX, rectY, rectLength);
+    }
+
+    /**
+     * Partition rule of type 0 for the triangles of src from from up to to. The children of triangle i of ranks 0, 1
+     * and 2 go to slot i past the offsets of a, b and c. The arithmetic is the same as in TileBuffer.subdivide, and
+     * overriding kernels must keep it that way
+     */
+    protected void type0(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff, double[][] c,
+                         int cOff) {
+        for (int i = from; i < to; i++) {
+            double x1 = src[0][i];
+            double y1 = src[1][i];
+            double x2 = src[2][i];
+            double y2 = src[3][i];
+            double x3 = src[4][i];
+            double y3 = src[5][i];
+
+            double nx1 = x1 + TileBuffer.INV_PHI * (x2 - x1);
+            double ny1 = y1 + TileBuffer.INV_PHI * (y2 - y1);
+            double nx2 = x3 + TileBuffer.INV_PHI * (x1 - x3);
+            double ny2 = y3 + TileBuffer.INV_PHI * (y1 - y3);
+
+            write(a, aOff + i, nx2, ny2, x1, y1, nx1, ny1);
+            write(b, bOff + i, x3, y3, nx2, ny2, nx1, ny1);
+            write(c, cOff + i, x3, y3, nx1, ny1, x2, y2);
+        }
+    }
+
+    /**
+     * Partition rule of type 1, laid out like type0
+     */
+    protected void type1(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff, double[][] c,
+                         int cOff) {
+        for (int i = from; i < to; i++) {
+            double x1 = src[0][i];
+            double y1 = src[1][i];
+            double x2 = src[2][i];
+            double y2 = src[3][i];
+            double x3 = src[4][i];
+            double y3 = src[5][i];
+
+            double nx1 = x2 + TileBuffer.INV_PHI * (x1 - x2);
+            double ny1 = y2 + TileBuffer.INV_PHI * (y1 - y2);
+            double nx2 = x1 + TileBuffer.INV_PHI * (x3 - x1);
+            double ny2 = y1 + TileBuffer.INV_PHI * (y3 - y1);
+
+            write(a, aOff + i, nx1, ny1, nx2, ny2, x1, y1);
+            write(b, bOff + i, x2, y2, nx2, ny2, nx1, ny1);
+            write(c, cOff + i, x2, y2, x3, y3, nx2, ny2);
+        }
+    }
+
+    /**
+     * Partition rule of type 2. The children of triangle i of ranks 0 and 1 go to slot i past the offsets of a and b
+     */
+    protected void type2(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff) {
+        for (int i = from; i < to; i++) {
+            double x1 = src[0][i];
+            double y1 = src[1][i];
+            double x2 = src[2][i];
+            double y2 = src[3][i];
+            double x3 = src[4][i];
+            double y3 = src[5][i];
+
+            double nx1 = x2 + TileBuffer.INV_PHI * (x3 - x2);
+            double ny1 = y2 + TileBuffer.INV_PHI * (y3 - y2);
+
+            write(a, aOff + i, nx1, ny1, x3, y3, x1, y1);
+            write(b, bOff + i, x2, y2, nx1, ny1, x1, y1);
+        }
+    }
+
+    /**
+     * Partition rule of type 3, laid out like type2
+     */
+    protected void type3(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff) {
+        for (int i = from; i < to; i++) {
+            double x1 = src[0][i];
+            double y1 = src[1][i];
+            double x2 = src[2][i];
+            double y2 = src[3][i];
+            double x3 = src[4][i];
+            double y3 = src[5][i];
+
+            double nx1 = x2 + TileBuffer.INV_PHI_SQ * (x3 - x2);
+            double ny1 = y2 + TileBuffer.INV_PHI_SQ * (y3 - y2);
+
+            write(a, aOff + i, nx1, ny1, x1, y1, x2, y2);
+            write(b, bOff + i, x3, y3, x1, y1, nx1, ny1);
+        }
+    }
+
+    private static void write(double[][] dst, int i, double x1, double y1, double x2, double y2, double x3,
+                              double y3) {
+        dst[0][i] = x1;
+        dst[1][i] = y1;
+        dst[2][i] = x2;
+        dst[3][i] = y2;
+        dst[4][i] = x3;
+        dst[5][i] = y3;
+    }
+}
@@ -0,0 +1,300 @@
+package tiling;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Square chunks of a tiling for viewers that pan and zoom. At zoom level z a world length of 1 spans 2^z pixels, and
+ * chunk (cx, cy) covers the chunkPixels wide square of the screen starting at pixel (cx * chunkPixels,
+ * cy * chunkPixels). Each chunk holds the base tiles overlapping it, built by the rectangle pruned descent from the
+ * world root down to the depth where tiles are about tilePixels across at that zoom level. Tiles on a chunk's edge are
+ * in every chunk they overlap
+ * <p>
+ * Chunks are built on background threads and kept until their total size passes the memory cap, after which the least
+ * recently used ones are dropped. Chunks asked for with request are built before the ones asked for with prefetch, and
+ * within each the most recent ask goes first. Builds that haven't started can be dropped with retain once the view has
+ * moved on. Safe to use from several threads
+ */
+public class ChunkCache {
+    // Memory used by one tile of a chunk. One byte for the type and 6 doubles for the points
+    static final long BYTES_PER_TILE = 1 + TileBuffer.STRIDE * Double.BYTES;
+
+    // Zoom levels run from -MAX_ZOOM to MAX_ZOOM
+    public static final int MAX_ZOOM = 32;
+
+    // Chunk coordinates are packed into 28 bits each in the key, so they run from -MAX_CHUNK to MAX_CHUNK
+    private static final int COORD_BITS = 28;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    public static final int MAX_CHUNK = (1 << (COORD_BITS - 1)) - 1;
+
+    private final TileBuffer worldRoot;
+
+    // Widest the world root's triangles are along x or y
+    private final double rootLength;
+
+    private final int chunkPixels;
+    private final double tilePixels;
+
+    private final long maxBytes;
+    private long bytes = 0;
+
+    // Access ordered so iteration starts at the least recently used chunk
+    private final LinkedHashMap<Long, TileBuffer> chunks = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Chunks being built or waiting to be. Lets a chunk that is asked for twice be built once
+    private final Map<Long, Load> loading = new HashMap<>();
+
+    // Orders the waiting loads by Load.compareTo
+    private final ThreadPoolExecutor executor;
+
+    // Stamped on every ask, so the most recent one can go first
+    private long asks = 0;
+
+    /**
+     * @param worldRoot   the triangles the chunks are cut from
+     * @param chunkPixels width and height of a chunk on screen
+     * @param tilePixels  about how wide base tiles should be on screen
+     * @param maxBytes    the most memory the chunks may use together
+     * @param threads     number of threads chunks are built on
+     */
+    public ChunkCache(TileBuffer worldRoot, int chunkPixels, double tilePixels, long maxBytes, int threads) {
+        if (chunkPixels < 1)
+            throw new IllegalArgumentException("Chunk size less than 1");
+        if (tilePixels <= 0)
+            throw new IllegalArgumentException("Tile size not above 0");
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Memory cap less than 0");
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads less than 1");
+
+        this.worldRoot = worldRoot;
+
+        double length = 0;
+        for (int i = 0; i < worldRoot.size(); i++)
+            for (int a = 0; a < 3; a++)
+                for (int b = a + 1; b < 3; b++)
+                    length = Math.max(length, Math.max(Math.abs(worldRoot.x(i, a) - worldRoot.x(i, b)),
+                            Math.abs(worldRoot.y(i, a) - worldRoot.y(i, b))));
+        rootLength = length;
+
+        this.chunkPixels = chunkPixels;
+        this.tilePixels = tilePixels;
+        this.maxBytes = maxBytes;
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chunk");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public int getChunkPixels() {
+        return chunkPixels;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the world length a chunk covers at a zoom level
+     */
+    public double chunkLength(int zoom) {
+        return chunkPixels / Math.pow(2, zoom);
+    }
+
+    /**
+     * Works out how deep the tiling has to go for its tiles to be about tilePixels wide at a zoom level. Every
+     * generation shrinks the tiles by PHI
+     *
+     * @return the depth the chunks at zoom are built to
+     */
+    public int depth(int zoom) {
+        double generations = Math.log(rootLength * Math.pow(2, zoom) / tilePixels) / Math.log(KDPenroseTri.PHI);
+        return Math.max(0, (int) Math.round(generations));
+    }
+
+    /**
+     * @return the chunk if it is cached, otherwise null. Doesn't start building it
+     */
+    public synchronized TileBuffer getIfPresent(int zoom, int cx, int cy) {
+        return chunks.get(key(zoom, cx, cy));
+    }
+
+    /**
+     * Gets a chunk, waiting for it to be built if it isn't cached
+     */
+    public TileBuffer get(int zoom, int cx, int cy) {
+        return request(zoom, cx, cy).join();
+    }
+
+    /**
+     * Starts building a chunk in the background unless it is cached or already being built. Meant for chunks that are
+     * on screen, so it goes ahead of every prefetch
+     *
+     * @return a future that completes with the chunk once it is cached. Cancelled if retain drops it first
+     */
+    public CompletableFuture<TileBuffer> request(int zoom, int cx, int cy) {
+        return load(zoom, cx, cy, true);
+    }
+
+    /**
+     * Same as request, but for chunks around the view. Only built once no chunk asked for with request is waiting
+     */
+    public CompletableFuture<TileBuffer> prefetch(int zoom, int cx, int cy) {
+        return load(zoom, cx, cy, false);
+    }
+
+    /**
+     * Drops every build that hasn't started yet, unless its chunk is at zoom and within the given range. Builds that
+     * are already running finish and are cached. Meant to be called as the view moves, with the range it now needs
+     *
+     * @param zoom   the zoom level being shown
+     * @param firstX the first chunk column to keep, inclusive
+     * @param firstY the first chunk row to keep, inclusive
+     * @param lastX  the last chunk column to keep, inclusive
+     * @param lastY  the last chunk row to keep, inclusive
+     */
+    public synchronized void retain(int zoom, int firstX, int firstY, int lastX, int lastY) {
+        Iterator<Load> each = loading.values().iterator();
+        while (each.hasNext()) {
+            Load load = each.next();
+            boolean wanted = load.zoom == zoom && load.cx >= firstX && load.cx <= lastX && load.cy >= firstY &&
+                    load.cy <= lastY;
+
+            // A load the queue no longer holds is running
+            if (!wanted && executor.getQueue().remove(load)) {
+                each.remove();
+                load.future.cancel(false);
+            }
+        }
+    }
+
+    private synchronized CompletableFuture<TileBuffer> load(int zoom, int cx, int cy, boolean visible) {
+        Long key = key(zoom, cx, cy);
+
+        TileBuffer chunk = chunks.get(key);
+        if (chunk != null)
+            return CompletableFuture.completedFuture(chunk);
+
+        Load load = loading.get(key);
+        if (load != null) {
+            // Moves a waiting load up to where the new ask would put it. A load the queue no longer holds is running
+            if (executor.getQueue().remove(load)) {
+                load.visible |= visible;
+                load.ask = ++asks;
+                executor.execute(load);
+            }
+            return load.future;
+        }
+
+        load = new Load(zoom, cx, cy, visible, ++asks);
+        loading.put(key, load);
+        load.future.whenComplete((built, error) -> store(key, built));
+        executor.execute(load);
+        return load.future;
+    }
+
+    /**
+     * Stops the threads chunks are built on. The cache cannot be used afterwards
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Builds the base tiles overlapping a chunk
+     */
+    private TileBuffer build(int zoom, int cx, int cy) {
+        double length = chunkLength(zoom);
+        double rectX = cx * length;
+        double rectY = cy * length;
+        int depth = depth(zoom);
+
+        TileBuffer.ClassifyTile classifier = (pts, offset) -> KDPenroseTri.classify(pts, offset, rectX, rectY, length);
+
+        TileBuffer roots = new TileBuffer(worldRoot.size());
+        for (int i = 0; i < worldRoot.size(); i++)
+            if (classifier.classify(worldRoot.coords(), i * TileBuffer.STRIDE) != KDPenroseTri.OUTSIDE)
+                roots.add(worldRoot.type(i), worldRoot.x(i, 0), worldRoot.y(i, 0), worldRoot.x(i, 1),
+                        worldRoot.y(i, 1), worldRoot.x(i, 2), worldRoot.y(i, 2));
+
+        // Triangles inside the chunk keep their whole subtree without testing it, so only the chunk's edge is tested
+        return TileBuffer.buildClassified(roots, depth, classifier)[depth];
+    }
+
+    /**
+     * Moves a built chunk from loading into the cache, dropping the least recently used chunks if it goes over the cap.
+     * Package private so the eviction can be tested without building chunks
+     */
+    synchronized void store(Long key, TileBuffer chunk) {
+        loading.remove(key);
+
+        // A chunk bigger than the whole cap is handed out but never stored
+        long size = chunk == null ? 0 : chunk.size() * BYTES_PER_TILE;
+        if (chunk == null || size > maxBytes)
+            return;
+
+        chunks.put(key, chunk);
+        bytes += size;
+
+        Iterator<TileBuffer> eldest = chunks.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().size() * BYTES_PER_TILE;
+            eldest.remove();
+        }
+    }
+
+    static long key(int zoom, int cx, int cy) {
+        if (zoom < -MAX_ZOOM || zoom > MAX_ZOOM)
+            throw new IllegalArgumentException("Zoom out of range");
+        if (Math.abs(cx) > MAX_CHUNK || Math.abs(cy) > MAX_CHUNK)
+            throw new IllegalArgumentException("Chunk out of range");
+
+        return ((long) (zoom + MAX_ZOOM) << (2 * COORD_BITS)) | ((cx & COORD_MASK) << COORD_BITS) | (cy & COORD_MASK);
+    }
+
+    /**
+     * A chunk waiting to be built or being built. Chunks on screen come before prefetched ones, then the most recent
+     * ask comes first. visible and ask only change while the load is out of the queue
+     */
+    private final class Load implements Runnable, Comparable<Load> {
+        private final int zoom;
+        private final int cx;
+        private final int cy;
+        private final CompletableFuture<TileBuffer> future = new CompletableFuture<>();
+
+        private boolean visible;
+        private long ask;
+
+        private Load(int zoom, int cx, int cy, boolean visible, long ask) {
+            this.zoom = zoom;
+            this.cx = cx;
+            this.cy = cy;
+            this.visible = visible;
+            this.ask = ask;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(build(zoom, cx, cy));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public int compareTo(Load other) {
+            if (visible != other.visible)
+                return visible ? -1 : 1;
+            return Long.compare(other.ask, ask);
+        }
+    }
+}
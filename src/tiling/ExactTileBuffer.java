@@ -0,0 +1,338 @@
+package tiling;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Flat store of kite/dart Penrose triangles whose points are exact. Every coordinate is kept as a + b * PHI with
+ * whole numbers a and b: 2x / length and y / (length * sin(36 deg)) both land in Z[PHI] for every point the partition
+ * rules can make, because every edge runs along one of the pentagonal directions. Dividing by PHI is
+ * (a, b) -> (b - a, a), so subdividing only needs integer adds and shifts and never drifts no matter how deep it goes.
+ * Points are only turned into screen doubles by toScreen, at render time
+ * <p>
+ * Tile i has type types[i] and its points at coords[12i .. 12i + 11] in the order p1, p2, p3. Each point is
+ * {xa, xb, ya, yb}
+ */
+public class ExactTileBuffer {
+    // Number of longs used to store one point
+    public static final int POINT = 4;
+
+    // Number of longs used to store one triangle
+    public static final int STRIDE = 3 * POINT;
+
+    // Coefficients grow by about PHI every generation. Past this they no longer fit in the 53 bits toScreen can turn
+    // into doubles without rounding
+    public static final int MAX_DEPTH = 70;
+
+    // PHI split into two doubles so a + b * PHI keeps full precision even when a and -b * PHI almost cancel
+    private static final double PHI_HI = KDPenroseTri.PHI;
+    private static final double PHI_LO = new BigDecimal("1.61803398874989484820458683436563811772030917980576")
+            .subtract(new BigDecimal(PHI_HI)).doubleValue();
+
+    private static final double SIN_36 = Math.sin(Math.PI / 5);
+
+    private byte[] types;
+    private long[] coords;
+    private int size = 0;
+
+    // Screen frame. Exact point (0, 0) is drawn at (originX, originY) and a length of 1 spans scale pixels
+    private final double originX;
+    private final double originY;
+    private final double scale;
+
+    // Where toScreen puts a child before it is handed to a CheckTile
+    private final double[] screen = new double[TileBuffer.STRIDE];
+
+    public ExactTileBuffer(int capacity, double originX, double originY, double scale) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity less than 0");
+
+        types = new byte[capacity];
+        coords = new long[capacity * STRIDE];
+        this.originX = originX;
+        this.originY = originY;
+        this.scale = scale;
+    }
+
+    /**
+     * Builds the exact version of TileBuffer.rootTri. Its base runs from exact point 0 to exact point 1 and its apex is
+     * at 1 - w + w^2 with w = e^(i * 36 deg), which is ({1, 0}, {-1, 1}). The base is put at the exact height rather
+     * than TileBuffer.rootHeight, which is rounded down, so the apex lands on y = 0 like TileBuffer.rootTri's
+     *
+     * @param baseLength the length of the root triangle's base
+     * @return a buffer holding only the root triangle
+     */
+    public static ExactTileBuffer rootTri(int baseLength) {
+        // Same arithmetic toScreen does for the apex, so it comes out exactly 0
+        double originY = baseLength * SIN_36 * golden(-1, 1);
+        ExactTileBuffer rootTri = new ExactTileBuffer(1, 0, originY, baseLength);
+        rootTri.add(2, new long[]{1, 0, -1, 1, 0, 0, 0, 0, 2, 0, 0, 0}, 0);
+        return rootTri;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte type(int i) {
+        return types[i];
+    }
+
+    /**
+     * Gives direct access to the coordinate array. Only the first size() * STRIDE values are valid
+     *
+     * @return the backing coordinate array
+     */
+    public long[] coords() {
+        return coords;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= types.length)
+            return;
+
+        int newCapacity = Math.max(capacity, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, newCapacity);
+        coords = Arrays.copyOf(coords, newCapacity * STRIDE);
+    }
+
+    /**
+     * Appends a triangle to the end of the buffer
+     *
+     * @param type   the type of the triangle
+     * @param src    array holding the triangle's points
+     * @param srcOff offset of the triangle's first coefficient in src
+     * @return the index of the new triangle
+     */
+    public int add(int type, long[] src, int srcOff) {
+        if (type < 0 || type > 3)
+            throw new IllegalArgumentException("Invalid type");
+
+        ensureCapacity(size + 1);
+        types[size] = (byte) type;
+        System.arraycopy(src, srcOff, coords, size * STRIDE, STRIDE);
+
+        return size++;
+    }
+
+    /**
+     * Subdivides every triangle in this buffer and appends the children that pass setTri to next. setTri sees the
+     * children in screen coordinates
+     *
+     * @param setTri filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @param next   the buffer holding the next level of the tiling. Should use the same screen frame as this one
+     */
+    public void subdivide(TileBuffer.CheckTile setTri, ExactTileBuffer next) {
+        subdivide(0, size, setTri, next);
+    }
+
+    /**
+     * Same as subdivide(setTri, next) for the triangles from (inclusive) to to (exclusive), so a large level can be
+     * subdivided in batches
+     */
+    public void subdivide(int from, int to, TileBuffer.CheckTile setTri, ExactTileBuffer next) {
+        next.ensureCapacity(next.size + 3 * (to - from));
+
+        for (int i = from; i < to; i++) {
+            int first = next.size;
+            int end = subdivide(types[i], coords, i * STRIDE, next.types, next.coords, first);
+
+            if (setTri == null) {
+                next.size = end;
+                continue;
+            }
+
+            // Compacts the kept children to the front
+            for (int child = first; child < end; child++) {
+                next.toScreen(next.coords, child * STRIDE, next.screen, 0);
+                if (setTri.keep(next.screen, 0)) {
+                    if (child != next.size) {
+                        next.types[next.size] = next.types[child];
+                        System.arraycopy(next.coords, child * STRIDE, next.coords, next.size * STRIDE, STRIDE);
+                    }
+                    next.size++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param capacity number of triangles the new buffer has room for
+     * @return an empty buffer with the same screen frame as this one, ready to be passed to subdivide
+     */
+    public ExactTileBuffer nextLevel(int capacity) {
+        return new ExactTileBuffer(capacity, originX, originY, scale);
+    }
+
+    /**
+     * Exact version of TileBuffer.buildLevels
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down. At most MAX_DEPTH
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public static ExactTileBuffer[] buildLevels(ExactTileBuffer rootTri, int depth, TileBuffer.CheckTile setTri) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+        if (depth > MAX_DEPTH)
+            throw new IllegalArgumentException("Depth too large");
+
+        ExactTileBuffer[] levels = new ExactTileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = rootTri.nextLevel(3 * levels[level - 1].size());
+            levels[level - 1].subdivide(setTri, levels[level]);
+        }
+
+        return levels;
+    }
+
+    /**
+     * Converts the whole buffer to screen coordinates
+     *
+     * @return a TileBuffer holding the same triangles in screen coordinates
+     */
+    public TileBuffer toScreen() {
+        TileBuffer out = new TileBuffer(size);
+        for (int i = 0; i < size; i++) {
+            toScreen(coords, i * STRIDE, screen, 0);
+            out.add(types[i], screen[0], screen[1], screen[2], screen[3], screen[4], screen[5]);
+        }
+
+        return out;
+    }
+
+    /**
+     * Converts one triangle to screen coordinates
+     *
+     * @param src    array holding the triangle's exact points
+     * @param srcOff offset of the triangle's first coefficient in src
+     * @param dst    array the screen points are written to, in the same layout TileBuffer uses
+     * @param dstOff offset of p1's x coordinate in dst
+     */
+    public void toScreen(long[] src, int srcOff, double[] dst, int dstOff) {
+        for (int point = 0; point < 3; point++) {
+            int o = srcOff + point * POINT;
+            dst[dstOff + 2 * point] = originX + scale * golden(src[o], src[o + 1]) / 2;
+            dst[dstOff + 2 * point + 1] = originY - scale * SIN_36 * golden(src[o + 2], src[o + 3]);
+        }
+    }
+
+    /**
+     * Subdivision kernel for exact points. Follows the same partition rules as TileBuffer.subdivide. Children are
+     * written to the 3 triangle slots starting at dstIndex, which the caller has to make room for
+     *
+     * @return the index of the first free triangle slot after the children
+     */
+    public static int subdivide(int type, long[] src, int srcOff, byte[] dstTypes, long[] dst, int dstIndex) {
+        int p1 = srcOff;
+        int p2 = srcOff + POINT;
+        int p3 = srcOff + 2 * POINT;
+
+        // Child c's point k starts at c0 + c * STRIDE + k * POINT
+        int c0 = dstIndex * STRIDE;
+        int c1 = c0 + STRIDE;
+        int c2 = c1 + STRIDE;
+
+        // New points are built straight into the first child that uses them and copied into the others from there
+        switch (type) {
+            case 0 -> {
+                lerp(src, p1, p2, dst, c0 + 2 * POINT);
+                lerp(src, p3, p1, dst, c0);
+                copy(src, p1, dst, c0 + POINT);
+                copy(src, p3, dst, c1);
+                copy(dst, c0, dst, c1 + POINT);
+                copy(dst, c0 + 2 * POINT, dst, c1 + 2 * POINT);
+                copy(src, p3, dst, c2);
+                copy(dst, c0 + 2 * POINT, dst, c2 + POINT);
+                copy(src, p2, dst, c2 + 2 * POINT);
+                return setTypes(dstTypes, dstIndex, 2, 1, 0);
+            }
+            case 1 -> {
+                lerp(src, p2, p1, dst, c0);
+                lerp(src, p1, p3, dst, c0 + POINT);
+                copy(src, p1, dst, c0 + 2 * POINT);
+                copy(src, p2, dst, c1);
+                copy(dst, c0 + POINT, dst, c1 + POINT);
+                copy(dst, c0, dst, c1 + 2 * POINT);
+                copy(src, p2, dst, c2);
+                copy(src, p3, dst, c2 + POINT);
+                copy(dst, c0 + POINT, dst, c2 + 2 * POINT);
+                return setTypes(dstTypes, dstIndex, 3, 0, 1);
+            }
+            case 2 -> {
+                lerp(src, p2, p3, dst, c0);
+                copy(src, p3, dst, c0 + POINT);
+                copy(src, p1, dst, c0 + 2 * POINT);
+                copy(src, p2, dst, c1);
+                copy(dst, c0, dst, c1 + POINT);
+                copy(src, p1, dst, c1 + 2 * POINT);
+                return setTypes(dstTypes, dstIndex, 2, 1);
+            }
+            case 3 -> {
+                lerpTwice(src, p2, p3, dst, c0);
+                copy(src, p1, dst, c0 + POINT);
+                copy(src, p2, dst, c0 + 2 * POINT);
+                copy(src, p3, dst, c1);
+                copy(src, p1, dst, c1 + POINT);
+                copy(dst, c0, dst, c1 + 2 * POINT);
+                return setTypes(dstTypes, dstIndex, 3, 0);
+            }
+            default -> throw new IllegalArgumentException("Invalid type");
+        }
+    }
+
+    /**
+     * Writes p + (q - p) / PHI to dst. Dividing a + b * PHI by PHI gives (b - a) + a * PHI
+     */
+    private static void lerp(long[] src, int p, int q, long[] dst, int d) {
+        for (int i = 0; i < POINT; i += 2) {
+            long a = src[q + i] - src[p + i];
+            long b = src[q + i + 1] - src[p + i + 1];
+            dst[d + i] = src[p + i] + b - a;
+            dst[d + i + 1] = src[p + i + 1] + a;
+        }
+    }
+
+    /**
+     * Writes p + (q - p) / PHI^2 to dst. Dividing a + b * PHI by PHI twice gives (2a - b) + (b - a) * PHI
+     */
+    private static void lerpTwice(long[] src, int p, int q, long[] dst, int d) {
+        for (int i = 0; i < POINT; i += 2) {
+            long a = src[q + i] - src[p + i];
+            long b = src[q + i + 1] - src[p + i + 1];
+            dst[d + i] = src[p + i] + (a << 1) - b;
+            dst[d + i + 1] = src[p + i + 1] + b - a;
+        }
+    }
+
+    private static void copy(long[] src, int p, long[] dst, int d) {
+        dst[d] = src[p];
+        dst[d + 1] = src[p + 1];
+        dst[d + 2] = src[p + 2];
+        dst[d + 3] = src[p + 3];
+    }
+
+    private static int setTypes(byte[] dstTypes, int dstIndex, int t1, int t2) {
+        dstTypes[dstIndex] = (byte) t1;
+        dstTypes[dstIndex + 1] = (byte) t2;
+        return dstIndex + 2;
+    }
+
+    private static int setTypes(byte[] dstTypes, int dstIndex, int t1, int t2, int t3) {
+        setTypes(dstTypes, dstIndex, t1, t2);
+        dstTypes[dstIndex + 2] = (byte) t3;
+        return dstIndex + 3;
+    }
+
+    /**
+     * @return a + b * PHI to full double precision
+     */
+    private static double golden(long a, long b) {
+        double hi = b * PHI_HI;
+        double err = Math.fma(b, PHI_HI, -hi);
+        return (a + hi) + (err + b * PHI_LO);
+    }
+}
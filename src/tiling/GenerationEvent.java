@@ -0,0 +1,34 @@
+package tiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one call to PenroseTiling.buildPenroseTiles. Costs next to nothing unless a
+ * recording has it enabled
+ */
+@Name("tiling.Generation")
+@Label("Tiling Generation")
+@Category("Tiling")
+@Description("Builds the levels of a tiling")
+class GenerationEvent extends jdk.jfr.Event {
+    @Label("Rules")
+    @Description("Name of the substitution rules the tiling follows")
+    String rules;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Threads")
+    int threads;
+
+    @Label("Nodes")
+    @Description("Triangles kept over every level")
+    long nodes;
+
+    @Label("Leaves")
+    @Description("Base tiles at the last level")
+    long leaves;
+}
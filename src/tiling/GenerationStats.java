@@ -0,0 +1,175 @@
+package tiling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-depth counters for one generation: how many triangles were checked by the filter, how many it pruned, how many
+ * were kept and how long each level took. Builders only record into it when one is passed in, so leaving it out costs
+ * one null check per level. Safe to record into from several threads
+ */
+public class GenerationStats {
+    /**
+     * Wraps a filter for one level and counts what passes through it. Only used by one thread, and its totals are
+     * added to the stats once the level is done
+     */
+    static class Counter implements TileBuffer.CheckTile {
+        private final TileBuffer.CheckTile setTri;
+        private long visited;
+        private long pruned;
+
+        private Counter(TileBuffer.CheckTile setTri) {
+            this.setTri = setTri;
+        }
+
+        @Override
+        public boolean keep(double[] coords, int offset) {
+            visited++;
+            if (setTri == null || setTri.keep(coords, offset))
+                return true;
+
+            pruned++;
+            return false;
+        }
+    }
+
+    private final int depth;
+
+    // Triangles made by subdivision and checked by the filter, by level
+    private final AtomicLongArray visited;
+
+    // Triangles the filter removed, by level
+    private final AtomicLongArray pruned;
+
+    // Time spent subdividing and stamping each level, summed over every thread
+    private final AtomicLongArray nanos;
+
+    // Triangles each level ended up with. Set once the generation is done
+    private final long[] kept;
+
+    private long buildNanos;
+    private long renderNanos;
+    private long rendered;
+
+    /**
+     * @param depth how many generations the tiling goes down
+     */
+    public GenerationStats(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        this.depth = depth;
+        visited = new AtomicLongArray(depth + 1);
+        pruned = new AtomicLongArray(depth + 1);
+        nanos = new AtomicLongArray(depth + 1);
+        kept = new long[depth + 1];
+    }
+
+    /**
+     * @return a filter that behaves like setTri and counts every triangle it sees. Null setTri keeps everything
+     */
+    static Counter counter(TileBuffer.CheckTile setTri) {
+        return new Counter(setTri);
+    }
+
+    /**
+     * Adds what a counter saw while building a level, and how long that took
+     */
+    void record(int level, Counter counter, long nanos) {
+        visited.addAndGet(level, counter.visited);
+        pruned.addAndGet(level, counter.pruned);
+        this.nanos.addAndGet(level, nanos);
+    }
+
+    /**
+     * Records the finished levels and the wall time the whole build took
+     */
+    void finish(TileBuffer[] levels, long buildNanos) {
+        for (int level = 0; level <= depth; level++)
+            kept[level] = levels[level].size();
+
+        // The root triangles are never filtered, but count as visited so nothing at level 0 looks stamped
+        visited.addAndGet(0, kept[0]);
+        this.buildNanos = buildNanos;
+    }
+
+    /**
+     * Records how long drawing the generation took
+     *
+     * @param nanos time spent drawing
+     * @param tiles number of base tiles drawn
+     */
+    public void recordRender(long nanos, long tiles) {
+        renderNanos = nanos;
+        rendered = tiles;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getVisited(int level) {
+        return visited.get(level);
+    }
+
+    public long getPruned(int level) {
+        return pruned.get(level);
+    }
+
+    /**
+     * @return triangles at a level that were copied from a template instead of going through the filter
+     */
+    public long getStamped(int level) {
+        return kept[level] - (visited.get(level) - pruned.get(level));
+    }
+
+    public long getKept(int level) {
+        return kept[level];
+    }
+
+    public long getNanos(int level) {
+        return nanos.get(level);
+    }
+
+    /**
+     * @return every triangle kept, over all levels
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (long each : kept)
+            nodes += each;
+        return nodes;
+    }
+
+    /**
+     * @return the base tiles emitted at the last level
+     */
+    public long getLeaves() {
+        return kept[depth];
+    }
+
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    public long getRendered() {
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("depth %d, %d nodes, %d leaves, build %.3f ms, render %.3f ms (%d tiles)%n",
+                depth, getNodes(), getLeaves(), buildNanos / 1e6, renderNanos / 1e6, rendered));
+        out.append(String.format("%5s %12s %12s %12s %12s %10s%n", "level", "visited", "pruned", "stamped", "kept",
+                "ms"));
+        for (int level = 0; level <= depth; level++)
+            out.append(String.format("%5d %12d %12d %12d %12d %10.3f%n", level, getVisited(level), getPruned(level),
+                    getStamped(level), getKept(level), getNanos(level) / 1e6));
+
+        return out.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Store of kite/dart Penrose triangles grouped by type, with every coordinate in its own array. Triangle i of type t
+ * has its points at column(t, 0)[i] .. column(t, 5)[i] in the order x1, y1, x2, y2, x3, y3. Every triangle in a group
+ * follows the same partition rule and every coordinate is contiguous, so a group can be subdivided a whole vector of
+ * triangles at a time
+ */
+public class GroupedTileBuffer {
+    private final double[][][] columns = new double[4][TileBuffer.STRIDE][];
+    private final int[] sizes = new int[4];
+
+    public GroupedTileBuffer() {
+        this(new int[4]);
+    }
+
+    /**
+     * @param capacities how many triangles of each type the buffer can hold before it grows
+     */
+    public GroupedTileBuffer(int[] capacities) {
+        if (capacities.length != 4)
+            throw new IllegalArgumentException("Need a capacity for every type");
+
+        for (int type = 0; type < 4; type++) {
+            if (capacities[type] < 0)
+                throw new IllegalArgumentException("Capacity less than 0");
+            for (int coordinate = 0; coordinate < TileBuffer.STRIDE; coordinate++)
+                columns[type][coordinate] = new double[capacities[type]];
+        }
+    }
+
+    /**
+     * Copies the triangles of a TileBuffer into their groups, keeping their order within each type
+     */
+    public static GroupedTileBuffer of(TileBuffer tiles) {
+        int[] counts = new int[4];
+        for (int i = 0; i < tiles.size(); i++)
+            counts[tiles.type(i)]++;
+
+        GroupedTileBuffer grouped = new GroupedTileBuffer(counts);
+        double[] coords = tiles.coords();
+        for (int i = 0; i < tiles.size(); i++) {
+            int o = i * TileBuffer.STRIDE;
+            grouped.add(tiles.type(i), coords[o], coords[o + 1], coords[o + 2], coords[o + 3], coords[o + 4],
+                    coords[o + 5]);
+        }
+
+        return grouped;
+    }
+
+    public int size() {
+        return sizes[0] + sizes[1] + sizes[2] + sizes[3];
+    }
+
+    public int size(int type) {
+        return sizes[type];
+    }
+
+    /**
+     * Gives direct access to one coordinate of one group. Only the first size(type) values are valid
+     *
+     * @param type       the group
+     * @param coordinate 0 to 5, for x1, y1, x2, y2, x3 and y3
+     * @return the backing array
+     */
+    public double[] column(int type, int coordinate) {
+        return columns[type][coordinate];
+    }
+
+    /**
+     * Sets how many triangles of a type are valid after a kernel wrote them straight into the columns
+     */
+    public void setSize(int type, int size) {
+        if (size < 0 || size > columns[type][0].length)
+            throw new IllegalArgumentException("Size outside the capacity");
+
+        sizes[type] = size;
+    }
+
+    public void clear() {
+        Arrays.fill(sizes, 0);
+    }
+
+    /**
+     * Makes sure a group can hold at least capacity triangles without growing again
+     */
+    public void ensureCapacity(int type, int capacity) {
+        double[][] group = columns[type];
+        if (capacity <= group[0].length)
+            return;
+
+        int newCapacity = Math.max(capacity, group[0].length + (group[0].length >> 1));
+        for (int coordinate = 0; coordinate < TileBuffer.STRIDE; coordinate++)
+            group[coordinate] = Arrays.copyOf(group[coordinate], newCapacity);
+    }
+
+    /**
+     * Appends a triangle to the end of its group
+     *
+     * @return the index of the new triangle within its group
+     */
+    public int add(int type, double x1, double y1, double x2, double y2, double x3, double y3) {
+        if (type < 0 || type > 3)
+            throw new IllegalArgumentException("Invalid type");
+
+        ensureCapacity(type, sizes[type] + 1);
+
+        double[][] group = columns[type];
+        int i = sizes[type];
+        group[0][i] = x1;
+        group[1][i] = y1;
+        group[2][i] = x2;
+        group[3][i] = y2;
+        group[4][i] = x3;
+        group[5][i] = y3;
+
+        return sizes[type]++;
+    }
+
+    /**
+     * Copies every triangle into a TileBuffer, one type after another
+     *
+     * @return the triangles of type 0, then type 1, 2 and 3
+     */
+    public TileBuffer toTileBuffer() {
+        TileBuffer tiles = new TileBuffer(size());
+        for (int type = 0; type < 4; type++) {
+            double[][] group = columns[type];
+            for (int i = 0; i < sizes[type]; i++)
+                tiles.add(type, group[0][i], group[1][i], group[2][i], group[3][i], group[4][i], group[5][i]);
+        }
+
+        return tiles;
+    }
+}
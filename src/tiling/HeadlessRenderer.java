@@ -0,0 +1,90 @@
+package tiling;
+
+import javax.imageio.ImageIO;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Renders the whole root triangle to a PNG or SVG file without starting JavaFX. Meant for servers with no display. A
+ * .tiles output stores the base tiles themselves in a tile file instead
+ * <p>
+ * Usage: HeadlessRenderer depth output.(png|svg|tiles) [size]
+ */
+public class HeadlessRenderer {
+    // Base length of rootTri. Same as the one the Generator window uses
+    private static final int BASE_LENGTH = PenroseTiling.BASE_LENGTH;
+
+    private static final int BACKGROUND = 0xFFFFFFFF;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: HeadlessRenderer depth output.(png|svg|tiles) [size]");
+            return;
+        }
+
+        System.setProperty("java.awt.headless", "true");
+
+        int depth = Integer.parseInt(args[0]);
+        File output = new File(args[1]);
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : BASE_LENGTH;
+
+        double scale = (double) size / BASE_LENGTH;
+
+        // Streams the tiles straight onto the surface so deep tilings never have to fit in memory
+        if (output.getName().endsWith(".tiles")) {
+            try (TileFileWriter writer = new TileFileWriter(output.toPath(), TileFileWriter.DELTAS)) {
+                writer.startLevel(depth);
+                TileWalker.walk(TileBuffer.rootTri(BASE_LENGTH), depth, null, false, writer);
+            }
+        } else if (output.getName().endsWith(".svg")) {
+            try (SvgTileSurface surface = new SvgTileSurface(new BufferedWriter(new FileWriter(output)), size, size,
+                    BACKGROUND)) {
+                TilePainter.paintStreaming(surface, TileBuffer.rootTri(BASE_LENGTH), depth, null, false, 0, 0,
+                        scale);
+            }
+        } else {
+            RasterTileSurface surface = new RasterTileSurface(size, size, BACKGROUND);
+            TilePainter.paintStreaming(surface, TileBuffer.rootTri(BASE_LENGTH), depth, null, false, 0, 0, scale);
+            surface.dispose();
+
+            ImageIO.write(surface.getImage(), "png", output);
+        }
+    }
+
+    /**
+     * Paints a generation into an off-screen image and writes it as a PNG. Arguments are the same as TilePainter.paint
+     *
+     * @param width  width of the image in pixels
+     * @param height height of the image in pixels
+     * @param output the file that will be written
+     */
+    public static void renderPng(TileBuffer[] levels, boolean ghost, double offsetX, double offsetY, double scale,
+                                 int width, int height, File output) throws IOException {
+        RasterTileSurface surface = new RasterTileSurface(width, height, BACKGROUND);
+        TilePainter.paint(surface, levels, ghost, offsetX, offsetY, scale);
+        surface.dispose();
+
+        ImageIO.write(surface.getImage(), "png", output);
+    }
+
+    /**
+     * Streams a generation into an SVG file. Arguments are the same as TilePainter.paint. Without ghost lines the base
+     * tiles go through a TileMesh, so each whole kite or dart is written as one polygon instead of two triangles
+     *
+     * @param width  width of the document in pixels
+     * @param height height of the document in pixels
+     * @param output the file that will be written
+     */
+    public static void renderSvg(TileBuffer[] levels, boolean ghost, double offsetX, double offsetY, double scale,
+                                 int width, int height, File output) throws IOException {
+        try (SvgTileSurface surface = new SvgTileSurface(new BufferedWriter(new FileWriter(output)), width, height,
+                BACKGROUND)) {
+            if (ghost)
+                TilePainter.paint(surface, levels, true, offsetX, offsetY, scale);
+            else
+                TilePainter.paintMesh(surface, TileMesh.build(levels[levels.length - 1]), offsetX, offsetY, scale);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package tiling;
+
+/**
+ * Class defines Triangles for the Kites and Darts version of Penrose Tiling. Provides the overlap tests used to
+ * constrain a tiling to a rectangle. These triangles will always be isosceles, and there are only two shapes possible.
+ * Subdivision lives in TileBuffer.subdivide
+ */
+public class KDPenroseTri {
+    // The golden ratio. Used to relate edge widths to each other
+    public static final double PHI = (1 + Math.sqrt(5)) / 2;
+
+    // Where a triangle is relative to a rectangle. Returned by classify
+    public static final int OUTSIDE = 0;
+    public static final int BOUNDARY = 1;
+    public static final int INSIDE = 2;
+
+    // Can either be 0, 1, 2, or 3. Represents different triangles used to construct Kites and Darts
+    private final short type;
+
+    // The three points which define the triangle
+    private final double[] p1;
+    private final double[] p2;
+    private final double[] p3;
+
+    public KDPenroseTri(short type, double[] p1, double[] p2, double[] p3) {
+        if (type < 0 || type > 3)
+            throw new IllegalArgumentException("Invalid type");
+        if (p1.length != 2 || p2.length != 2 || p3.length != 2)
+            throw new IllegalArgumentException("One of the points are not 2-D");
+
+        this.type = type;
+        this.p1 = p1;
+        this.p2 = p2;
+        this.p3 = p3;
+    }
+
+    public short getType() {
+        return type;
+    }
+
+    public double[] getP1() {
+        return p1;
+    }
+
+    public double[] getP2() {
+        return p2;
+    }
+
+    public double[] getP3() {
+        return p3;
+    }
+
+    /**
+     * Checks if a rectangle and triangle are overlapping or one contains another
+     *
+     * @param rectX      the left x coordinate of the rectangle
+     * @param rectY      the top y coordinate of the rectangle
+     * @param rectLength the width and height of the rectangle
+     * @return true if they do overlap
+     */
+    public boolean overlapping(int rectX, int rectY, int rectLength) {
+        return overlapping(p1[0], p1[1], p2[0], p2[1], p3[0], p3[1], rectX, rectY, rectLength);
+    }
+
+    /**
+     * Same as overlapping(rectX, rectY, rectLength), but works on a triangle stored in a flat coordinate array such as
+     * the one in TileBuffer
+     *
+     * @param pts        array holding the triangle's points
+     * @param offset     offset of p1's x coordinate in pts
+     * @param rectX      the left x coordinate of the rectangle
+     * @param rectY      the top y coordinate of the rectangle
+     * @param rectLength the width and height of the rectangle
+     * @return true if they do overlap
+     */
+    public static boolean overlapping(double[] pts, int offset, double rectX, double rectY, double rectLength) {
+        return overlapping(pts[offset], pts[offset + 1], pts[offset + 2], pts[offset + 3], pts[offset + 4],
+                pts[offset + 5], rectX, rectY, rectLength);
+    }
+
+    /**
+     * Checks if a triangle stored in a flat coordinate array lies entirely within a rectangle. Since both are convex
+     * this is true exactly when all three points are inside, and then so is every triangle in its subtree
+     *
+     * @param pts        array holding the triangle's points
+     * @param offset     offset of p1's x coordinate in pts
+     * @param rectX      the left x coordinate of the rectangle
+     * @param rectY      the top y coordinate of the rectangle
+     * @param rectLength the width and height of the rectangle
+     * @return true if the rectangle contains the triangle
+     */
+    public static boolean inside(double[] pts, int offset, double rectX, double rectY, double rectLength) {
+        for (int i = offset; i < offset + 6; i += 2)
+            if (pts[i] < rectX || pts[i] > rectX + rectLength || pts[i + 1] < rectY || pts[i + 1] > rectY + rectLength)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Combines overlapping and inside into one test, working out the triangle's bounding box only once. A triangle is
+     * inside exactly when its bounding box is, so only triangles whose box straddles the rectangle's edge get the
+     * separating axis test
+     *
+     * @param pts        array holding the triangle's points
+     * @param offset     offset of p1's x coordinate in pts
+     * @param rectX      the left x coordinate of the rectangle
+     * @param rectY      the top y coordinate of the rectangle
+     * @param rectLength the width and height of the rectangle
+     * @return INSIDE if the rectangle contains the triangle, BOUNDARY if they overlap otherwise and OUTSIDE if they
+     * don't
+     */
+    public static int classify(double[] pts, int offset, double rectX, double rectY, double rectLength) {
+        double x1 = pts[offset];
+        double y1 = pts[offset + 1];
+        double x2 = pts[offset + 2];
+        double y2 = pts[offset + 3];
+        double x3 = pts[offset + 4];
+        double y3 = pts[offset + 5];
+
+        double rectRight = rectX + rectLength;
+        double rectBottom = rectY + rectLength;
+        double minX = Math.min(x1, Math.min(x2, x3));
+        double maxX = Math.max(x1, Math.max(x2, x3));
+        double minY = Math.min(y1, Math.min(y2, y3));
+        double maxY = Math.max(y1, Math.max(y2, y3));
+
+        if (maxX < rectX || minX > rectRight || maxY < rectY || minY > rectBottom)
+            return OUTSIDE;
+        if (minX >= rectX && maxX <= rectRight && minY >= rectY && maxY <= rectBottom)
+            return INSIDE;
+
+        return !separates(x1, y1, x2, y2, x3, y3, rectX, rectY, rectRight, rectBottom) &&
+                !separates(x2, y2, x3, y3, x1, y1, rectX, rectY, rectRight, rectBottom) &&
+                !separates(x3, y3, x1, y1, x2, y2, rectX, rectY, rectRight, rectBottom) ? BOUNDARY : OUTSIDE;
+    }
+
+    /**
+     * Separating axis test. A triangle and a rectangle are both convex, so they are apart exactly when the two shapes'
+     * projections onto one of the rectangle's axes or one of the triangle's edge normals don't meet. The rectangle's
+     * axes are checked by the bounding box test first, which also rejects most triangles cheaply. Nothing is allocated
+     * and there are no special cases for vertical or horizontal edges. Touching counts as overlapping. Takes the points
+     * one by one so kernels that store triangles by column can use it too
+     */
+    public static boolean overlapping(double x1, double y1, double x2, double y2, double x3, double y3,
+                                       double rectX, double rectY, double rectLength) {
+        double rectRight = rectX + rectLength;
+        double rectBottom = rectY + rectLength;
+
+        // Bounding box early reject. Same as projecting onto the x and y axes
+        if (Math.max(x1, Math.max(x2, x3)) < rectX || Math.min(x1, Math.min(x2, x3)) > rectRight ||
+                Math.max(y1, Math.max(y2, y3)) < rectY || Math.min(y1, Math.min(y2, y3)) > rectBottom)
+            return false;
+
+        return !separates(x1, y1, x2, y2, x3, y3, rectX, rectY, rectRight, rectBottom) &&
+                !separates(x2, y2, x3, y3, x1, y1, rectX, rectY, rectRight, rectBottom) &&
+                !separates(x3, y3, x1, y1, x2, y2, rectX, rectY, rectRight, rectBottom);
+    }
+
+    /**
+     * Checks if the normal of the edge from a to b separates the triangle abc from the rectangle
+     *
+     * @return true if the projections onto the normal don't meet
+     */
+    private static boolean separates(double ax, double ay, double bx, double by, double cx, double cy,
+                                     double rectX, double rectY, double rectRight, double rectBottom) {
+        double nx = by - ay;
+        double ny = ax - bx;
+
+        // The triangle projects onto [min, max] of its edge (a and b land on the same spot) and its opposite point
+        double edge = nx * ax + ny * ay;
+        double opposite = nx * cx + ny * cy;
+        double triMin = Math.min(edge, opposite);
+        double triMax = Math.max(edge, opposite);
+
+        // The rectangle's nearest and furthest corners along the normal
+        double rectMin = nx * (nx >= 0 ? rectX : rectRight) + ny * (ny >= 0 ? rectY : rectBottom);
+        double rectMax = nx * (nx >= 0 ? rectRight : rectX) + ny * (ny >= 0 ? rectBottom : rectY);
+
+        return rectMax < triMin || rectMin > triMax;
+    }
+}
@@ -0,0 +1,40 @@
+package tiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event with the counters of one level of a generation. Committed after the generation is done, one
+ * per level
+ */
+@Name("tiling.Level")
+@Label("Tiling Level")
+@Category("Tiling")
+@Description("Counters for one level of a tiling generation")
+class LevelEvent extends jdk.jfr.Event {
+    @Label("Level")
+    int level;
+
+    @Label("Visited")
+    @Description("Triangles checked by the filter")
+    long visited;
+
+    @Label("Pruned")
+    @Description("Triangles the filter removed")
+    long pruned;
+
+    @Label("Stamped")
+    @Description("Triangles copied from templates")
+    long stamped;
+
+    @Label("Kept")
+    long kept;
+
+    @Label("Time")
+    @Description("Time spent on the level, summed over every thread")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
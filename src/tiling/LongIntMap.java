@@ -0,0 +1,97 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to int values, kept in two primitive arrays so millions of entries don't
+ * mean millions of boxed objects. Values can't be negative, since -1 means a key is absent
+ */
+final class LongIntMap {
+    // Marks an empty slot. Never a valid key
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * @param expected number of keys the map should hold without growing
+     */
+    LongIntMap(int expected) {
+        // Kept at most half full so probe runs stay short
+        int capacity = Integer.highestOneBit(Math.max(2 * expected, 8) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value stored for key, or -1 if there is none
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (keys[slot] == key)
+                return values[slot];
+
+        return -1;
+    }
+
+    /**
+     * Stores value for key unless the key already has a value
+     *
+     * @return the value already stored for key, or -1 if value was stored
+     */
+    int putIfAbsent(long key, int value) {
+        if (key == EMPTY)
+            throw new IllegalArgumentException("Invalid key");
+        if (value < 0)
+            throw new IllegalArgumentException("Value less than 0");
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (keys[slot] == key)
+                return values[slot];
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length)
+            grow();
+
+        return -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[2 * oldKeys.length];
+        values = new int[2 * oldValues.length];
+        Arrays.fill(keys, EMPTY);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    // Mixes every bit of the key into the low bits used to pick a slot
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,265 @@
+package tiling;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the tiling on a ForkJoinPool. Subtrees are split into tasks until they are small enough to be built
+ * sequentially with TileBuffer.buildLevels. Every task keeps its own levels and they are only copied once, when the
+ * final levels are gathered in order. Unless subtrees are stamped from templates, the result is identical to
+ * TileBuffer.buildLevels, tile for tile. Given SubstitutionRules, the same split runs on any rule set instead of the
+ * kite/dart kernel
+ */
+public class ParallelTileBuilder {
+    // Subtrees estimated to hold fewer triangles than this are built on one thread
+    private static final int DEFAULT_THRESHOLD = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int threshold;
+
+    // Used to stamp subtrees that are entirely kept. Null if the builder has no cache
+    private final SubtreeTemplateCache templates;
+
+    // Rules every triangle is subdivided by. Null uses the kite/dart kernel in TileBuffer
+    private final SubstitutionRules rules;
+
+    // How many times as many triangles each level has as the one above it. PHI^2 for kites and darts
+    private final double growth;
+
+    // Most children one triangle can have
+    private final int maxChildren;
+
+    public ParallelTileBuilder(int parallelism) {
+        this(parallelism, DEFAULT_THRESHOLD, null);
+    }
+
+    public ParallelTileBuilder(int parallelism, SubtreeTemplateCache templates) {
+        this(parallelism, DEFAULT_THRESHOLD, templates);
+    }
+
+    public ParallelTileBuilder(int parallelism, int threshold, SubtreeTemplateCache templates) {
+        this(parallelism, threshold, templates, null);
+    }
+
+    /**
+     * Builder for any substitution tiling. Templates are only made for kites and darts, so nothing is stamped
+     *
+     * @param rules the rules every triangle is subdivided by
+     */
+    public ParallelTileBuilder(int parallelism, SubstitutionRules rules) {
+        this(parallelism, DEFAULT_THRESHOLD, null, rules);
+    }
+
+    private ParallelTileBuilder(int parallelism, int threshold, SubtreeTemplateCache templates,
+                                SubstitutionRules rules) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism less than 1");
+        if (threshold < 1)
+            throw new IllegalArgumentException("Threshold less than 1");
+
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+        this.templates = templates;
+        this.rules = rules;
+        growth = rules == null ? KDPenroseTri.PHI * KDPenroseTri.PHI : rules.getGrowth();
+        maxChildren = rules == null ? 3 : rules.getMaxChildren();
+        pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Builds the tiling from rootTri down
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                everything. Has to be safe to call from several threads at once
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public TileBuffer[] build(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri) {
+        return build(rootTri, depth, setTri, null);
+    }
+
+    /**
+     * Builds the tiling from rootTri down. If the builder has a template cache, the subtrees of triangles inside
+     * accepts are stamped from it. The same triangles come out either way, but stamping changes their order within a
+     * level
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                everything. Has to be safe to call from several threads at once
+     * @param inside  accepts triangles whose whole subtree would pass setTri. Null stamps nothing
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public TileBuffer[] build(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                              TileBuffer.CheckTile inside) {
+        return build(rootTri, depth, setTri, inside, null);
+    }
+
+    /**
+     * Same as build(rootTri, depth, setTri, inside), but records per level counters and times into stats. Level times
+     * are summed over every thread, so with more than one they can add up to more than the wall time
+     *
+     * @param stats where the counters go. Null records nothing
+     */
+    public TileBuffer[] build(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                              TileBuffer.CheckTile inside, GenerationStats stats) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        // Nothing to gain from splitting
+        if (pool == null)
+            return buildSequential(rootTri, depth, setTri, inside, stats, 0);
+
+        SubtreeTask root = new SubtreeTask(rootTri, depth, 0, setTri, inside, stats);
+        pool.invoke(root);
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = new TileBuffer(root.count(level));
+            root.gather(level, levels[level]);
+        }
+
+        return levels;
+    }
+
+    private TileBuffer[] buildSequential(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                         TileBuffer.CheckTile inside, GenerationStats stats, int rootLevel) {
+        if (rules != null)
+            return rules.buildLevels(rootTri, depth, setTri, stats, rootLevel);
+
+        return templates == null ? TileBuffer.buildLevels(rootTri, depth, setTri, stats, rootLevel)
+                : templates.buildLevels(rootTri, depth, setTri, inside, stats, rootLevel);
+    }
+
+    private void subdivide(TileBuffer level, TileBuffer.CheckTile setTri, TileBuffer next) {
+        if (rules == null)
+            level.subdivide(setTri, next);
+        else
+            rules.subdivide(level, setTri, next);
+    }
+
+    /**
+     * Stops the worker threads. The builder cannot be used afterwards
+     */
+    public void shutdown() {
+        if (pool == null)
+            return;
+
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Task for the subtree below the triangles in source. Either builds every level itself or subdivides source once
+     * and hands every child to its own task
+     */
+    private class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TileBuffer source;
+        private final int depth;
+
+        // Level source is at in the whole generation
+        private final int level;
+
+        private final TileBuffer.CheckTile setTri;
+        private final TileBuffer.CheckTile inside;
+        private final GenerationStats stats;
+
+        // Set when the subtree was built on this task's thread
+        private TileBuffer[] levels;
+
+        // Set when the subtree was split. One task per triangle in the level below source
+        private SubtreeTask[] subtasks;
+
+        private SubtreeTask(TileBuffer source, int depth, int level, TileBuffer.CheckTile setTri,
+                            TileBuffer.CheckTile inside, GenerationStats stats) {
+            this.source = source;
+            this.depth = depth;
+            this.level = level;
+            this.setTri = setTri;
+            this.inside = inside;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            // A triangle with a stamped subtree is cheap no matter how big the subtree is
+            boolean stamped = templates != null && inside != null && source.size() == 1 &&
+                    inside.keep(source.coords(), 0);
+
+            if (depth == 0 || stamped || source.size() * Math.pow(growth, depth) <= threshold) {
+                levels = buildSequential(source, depth, setTri, inside, stats, level);
+                return;
+            }
+
+            TileBuffer next = new TileBuffer(maxChildren * source.size());
+            if (stats == null) {
+                subdivide(source, setTri, next);
+            } else {
+                long start = System.nanoTime();
+                GenerationStats.Counter counter = GenerationStats.counter(setTri);
+                subdivide(source, counter, next);
+                stats.record(level + 1, counter, System.nanoTime() - start);
+            }
+
+            subtasks = new SubtreeTask[next.size()];
+            double[] coords = next.coords();
+            for (int i = 0; i < subtasks.length; i++) {
+                int o = i * TileBuffer.STRIDE;
+                TileBuffer child = new TileBuffer(1);
+                child.add(next.type(i), coords[o], coords[o + 1], coords[o + 2], coords[o + 3], coords[o + 4],
+                        coords[o + 5]);
+                subtasks[i] = new SubtreeTask(child, depth - 1, level + 1, setTri, inside, stats);
+            }
+
+            invokeAll(subtasks);
+        }
+
+        /**
+         * Counts the triangles this subtree has at a level relative to source
+         */
+        private int count(int level) {
+            if (levels != null)
+                return levels[level].size();
+            if (level == 0)
+                return source.size();
+
+            int count = 0;
+            for (SubtreeTask each : subtasks)
+                count += each.count(level - 1);
+            return count;
+        }
+
+        /**
+         * Appends the triangles this subtree has at a level relative to source to out, in the order
+         * TileBuffer.buildLevels would produce them
+         */
+        private void gather(int level, TileBuffer out) {
+            if (levels != null) {
+                out.addAll(levels[level]);
+                return;
+            }
+            if (level == 0) {
+                out.addAll(source);
+                return;
+            }
+
+            for (SubtreeTask each : subtasks)
+                each.gather(level - 1, out);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package tiling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JavaFX-free core of the generator. Owns the thread pools and template cache generations run on and the sizing rules
+ * the Generator window uses, so the same generation can be run from the UI, the command line or a benchmark.
+ * Generations follow SubstitutionRules.KITE_DART unless they are given other rules
+ */
+public class PenroseTiling {
+    // Base length of rootTri
+    public static final int BASE_LENGTH = 900;
+
+    // Change to increase or decrease the density of the triangles in the rectangle
+    public static final double DENSITY_CONSTANT = 1000;
+
+    // Most memory the canonical subtree templates may use
+    private static final long TEMPLATE_CACHE_BYTES = 64L << 20;
+
+    private final SubtreeTemplateCache templates = new SubtreeTemplateCache(TEMPLATE_CACHE_BYTES);
+
+    private final int threads;
+
+    // Builds kites and darts, stamping subtrees from templates
+    private final ParallelTileBuilder builder;
+
+    // Builders for every other rule set, made the first time the rules are used
+    private final Map<SubstitutionRules, ParallelTileBuilder> ruleBuilders = new HashMap<>();
+
+    /**
+     * @param threads number of threads used to build the tiling
+     */
+    public PenroseTiling(int threads) {
+        this.threads = threads;
+        builder = new ParallelTileBuilder(threads, templates);
+    }
+
+    public SubtreeTemplateCache getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Builds the penrose tiling from the root triangle down. Subtrees are split across a ForkJoinPool once they are
+     * large enough
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @param inside  accepts triangles whose whole subtree would pass setTri, so they can be stamped from templates
+     * @return every level of the tiling from rootTri (index 0) to depth. The last level holds the base tiles and
+     * every level above it is ghost drawn
+     */
+    public TileBuffer[] buildPenroseTiles(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                          TileBuffer.CheckTile inside) {
+        return buildPenroseTiles(SubstitutionRules.KITE_DART, rootTri, depth, setTri, inside, null);
+    }
+
+    /**
+     * Same as buildPenroseTiles(rootTri, depth, setTri, inside), but fills stats with per depth counters. The
+     * generation is also reported to Flight Recorder as a tiling.Generation event and one tiling.Level event per
+     * depth, when a recording has them enabled
+     *
+     * @param stats where the counters go. Null only records them if a recording wants the level events
+     */
+    public TileBuffer[] buildPenroseTiles(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                          TileBuffer.CheckTile inside, GenerationStats stats) {
+        return buildPenroseTiles(SubstitutionRules.KITE_DART, rootTri, depth, setTri, inside, stats);
+    }
+
+    /**
+     * Same as buildPenroseTiles(rootTri, depth, setTri, inside, stats), but by any rules. Templates are only made for
+     * kites and darts, so inside is ignored for other rules
+     *
+     * @param rules the rules every triangle is subdivided by. rootTri has to hold their types
+     */
+    public TileBuffer[] buildPenroseTiles(SubstitutionRules rules, TileBuffer rootTri, int depth,
+                                          TileBuffer.CheckTile setTri, TileBuffer.CheckTile inside,
+                                          GenerationStats stats) {
+        ParallelTileBuilder rulesBuilder = builderFor(rules);
+
+        LevelEvent levelEvent = new LevelEvent();
+        if (stats == null && levelEvent.isEnabled())
+            stats = new GenerationStats(depth);
+
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        long start = stats == null ? 0 : System.nanoTime();
+
+        TileBuffer[] levels = rulesBuilder.build(rootTri, depth, setTri, inside, stats);
+
+        event.end();
+        if (stats != null)
+            stats.finish(levels, System.nanoTime() - start);
+
+        if (event.shouldCommit()) {
+            event.rules = rules.getName();
+            event.depth = depth;
+            event.threads = rulesBuilder.getParallelism();
+            for (TileBuffer level : levels)
+                event.nodes += level.size();
+            event.leaves = levels[depth].size();
+            event.commit();
+        }
+
+        if (stats != null && levelEvent.isEnabled())
+            for (int level = 0; level <= depth; level++) {
+                LevelEvent each = new LevelEvent();
+                each.level = level;
+                each.visited = stats.getVisited(level);
+                each.pruned = stats.getPruned(level);
+                each.stamped = stats.getStamped(level);
+                each.kept = stats.getKept(level);
+                each.time = stats.getNanos(level);
+                each.commit();
+            }
+
+        return levels;
+    }
+
+    /**
+     * Level of detail version of buildPenroseTiles. A branch stops being subdivided once its triangle is smaller than
+     * minPixels on screen, and the triangle is handed to aggregates to be drawn as one flat patch with
+     * TilePainter.paintAggregates. The work done is then bounded by the output resolution instead of the depth. Runs
+     * on the calling thread and doesn't stamp templates, since stamping would go all the way down
+     *
+     * @param rootTri    the triangles which the function will build tiling in
+     * @param depth      the most generations this method will go down
+     * @param setTri     filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                   everything
+     * @param scale      (screen size) / (size of the drawn region), the same scale the tiling will be painted at
+     * @param minPixels  triangles whose bounding box is smaller than this many pixels across aren't subdivided
+     * @param aggregates the buffer the triangles that stopped early are appended to
+     * @return every level of the tiling from rootTri (index 0) to depth. Levels only hold the triangles still being
+     * refined, so the last one holds the base tiles that are large enough to be seen
+     */
+    public TileBuffer[] buildPenroseTiles(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri, double scale,
+                                          double minPixels, TileBuffer aggregates) {
+        return buildPenroseTiles(SubstitutionRules.KITE_DART, rootTri, depth, setTri, scale, minPixels, aggregates);
+    }
+
+    /**
+     * Same as buildPenroseTiles(rootTri, depth, setTri, scale, minPixels, aggregates), but by any rules
+     *
+     * @param rules the rules every triangle is subdivided by. rootTri has to hold their types
+     */
+    public TileBuffer[] buildPenroseTiles(SubstitutionRules rules, TileBuffer rootTri, int depth,
+                                          TileBuffer.CheckTile setTri, double scale, double minPixels,
+                                          TileBuffer aggregates) {
+        if (minPixels <= 0)
+            throw new IllegalArgumentException("Pixel threshold not above 0");
+
+        double minSize = minPixels / scale;
+        TileBuffer.CheckTile coarse = (pts, offset) -> {
+            double minX = Math.min(pts[offset], Math.min(pts[offset + 2], pts[offset + 4]));
+            double maxX = Math.max(pts[offset], Math.max(pts[offset + 2], pts[offset + 4]));
+            double minY = Math.min(pts[offset + 1], Math.min(pts[offset + 3], pts[offset + 5]));
+            double maxY = Math.max(pts[offset + 1], Math.max(pts[offset + 3], pts[offset + 5]));
+            return maxX - minX < minSize && maxY - minY < minSize;
+        };
+
+        return rules.buildLevels(rootTri, depth, setTri, coarse, aggregates);
+    }
+
+    /**
+     * @return the builder for a rule set. Kites and darts go to the one with the template cache
+     */
+    private synchronized ParallelTileBuilder builderFor(SubstitutionRules rules) {
+        if (rules == SubstitutionRules.KITE_DART)
+            return builder;
+
+        return ruleBuilders.computeIfAbsent(rules, each -> new ParallelTileBuilder(threads, each));
+    }
+
+    /**
+     * Calculates the needed density to be roughly the same density given varying rectangle areas
+     *
+     * @param triHeight the height of the starting triangle
+     * @param rectLength the length of the rectangle
+     * @return the density needed to approximately fit DENSITY_CONSTANT number of triangles into the rectangle
+     */
+    public static int calcDepth(int triHeight, int rectLength) {
+        // Number of type A and type B triangles. Type A triangles have 2 type A children and 1 type B children and
+        // type B triangles have 1 of each
+        int typeATris = 0;
+        int typeBTris = 1;
+
+        // Algorithm goes down in depth until the density aligns with densityConstant
+        int depth = 0;
+        while (DENSITY_CONSTANT / Math.pow(rectLength, 2) >
+                (2. * (typeATris + typeBTris)) / (BASE_LENGTH * triHeight)) {
+            int prevTypeATris = typeATris;
+            int prevTypeBTris = typeBTris;
+            typeATris = 2 * prevTypeATris + prevTypeBTris;
+            typeBTris = prevTypeATris + prevTypeBTris;
+            depth++;
+        }
+
+        return depth;
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    public synchronized void shutdown() {
+        builder.shutdown();
+        for (ParallelTileBuilder each : ruleBuilders.values())
+            each.shutdown();
+    }
+}
@@ -0,0 +1,112 @@
+package tiling;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * TileSurface backed by an off-screen BufferedImage. Only uses java.awt.image and java.awt.geom, so it works with
+ * -Djava.awt.headless=true on a server with no display
+ */
+public class RasterTileSurface implements TileSurface {
+    // Width of lines drawn
+    private static final float LINE_WIDTH = 1;
+
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+
+    // Reused for every shape so drawing doesn't allocate per triangle
+    private final Path2D.Double triangle = new Path2D.Double();
+    private final Line2D.Double segment = new Line2D.Double();
+
+    private int currentColor;
+
+    // Color the image is cleared to
+    private final int background;
+
+    /**
+     * @param width      width of the image in pixels
+     * @param height     height of the image in pixels
+     * @param background color the image is cleared to, as 0xAARRGGBB
+     */
+    public RasterTileSurface(int width, int height, int background) {
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        graphics.setStroke(new BasicStroke(LINE_WIDTH));
+
+        this.background = background;
+        clear();
+    }
+
+    /**
+     * Clears the whole image back to the background color
+     */
+    public void clear() {
+        // Src so a transparent background replaces what was there instead of being blended over it
+        Composite composite = graphics.getComposite();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setColor(new Color(background, true));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setComposite(composite);
+        currentColor = background;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    @Override
+    public void fillTriangle(int argb, double x1, double y1, double x2, double y2, double x3, double y3) {
+        setColor(argb);
+
+        triangle.reset();
+        triangle.moveTo(x1, y1);
+        triangle.lineTo(x2, y2);
+        triangle.lineTo(x3, y3);
+        triangle.closePath();
+        graphics.fill(triangle);
+    }
+
+    @Override
+    public void fillPolygon(int argb, double[] xs, double[] ys, int count) {
+        setColor(argb);
+
+        triangle.reset();
+        triangle.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < count; i++)
+            triangle.lineTo(xs[i], ys[i]);
+        triangle.closePath();
+        graphics.fill(triangle);
+    }
+
+    @Override
+    public void line(int argb, double x1, double y1, double x2, double y2) {
+        setColor(argb);
+
+        segment.setLine(x1, y1, x2, y2);
+        graphics.draw(segment);
+    }
+
+    /**
+     * Releases the graphics context. The image stays usable
+     */
+    public void dispose() {
+        graphics.dispose();
+    }
+
+    // Consecutive shapes are usually the same color, so only swap when it changes
+    private void setColor(int argb) {
+        if (argb != currentColor) {
+            graphics.setColor(new Color(argb, true));
+            currentColor = argb;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package tiling;
+
+import java.util.List;
+
+/**
+ * Extracts the tiles of many square windows of the same tiling in one walk down the tree. Every triangle carries the
+ * windows it still overlaps, so a triangle above all of them is subdivided once however many windows there are, and
+ * each tile is handed to every window it falls in. Windows can have their own depths
+ */
+public class RectangleQuery {
+    public interface QueryVisitor {
+        /**
+         * @param query  index of the window the tile is in. A tile in several windows is visited once for each
+         * @param type   the type of the tile
+         * @param coords array holding the tile's points. Only valid during the call, copy anything that is kept
+         * @param offset offset of the tile's p1 x coordinate in coords
+         */
+        void visit(int query, int type, double[] coords, int offset);
+    }
+
+    private final TileBuffer rootTri;
+
+    // x, y and length of every window
+    private final double[] rects;
+    private final int[] depths;
+    private final QueryVisitor visitor;
+
+    // Slot level holds the (at most 3) children of the triangle being expanded at that level
+    private final byte[] types;
+    private final double[] coords;
+
+    // The windows still being followed below the triangle expanded at each level. Entries are the window's index
+    // shifted left once, with the low bit set once the triangle is entirely inside it so its subtree isn't checked
+    // again
+    private final int[][] active;
+
+    private RectangleQuery(TileBuffer rootTri, double[] rects, int[] depths, QueryVisitor visitor) {
+        if (rects.length != 3 * depths.length)
+            throw new IllegalArgumentException("Need x, y and length for every depth");
+
+        int maxDepth = 0;
+        for (int depth : depths) {
+            if (depth < 0)
+                throw new IllegalArgumentException("Depth less than 0");
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        this.rootTri = rootTri;
+        this.rects = rects;
+        this.depths = depths;
+        this.visitor = visitor;
+        types = new byte[3 * (maxDepth + 1)];
+        coords = new double[3 * (maxDepth + 1) * TileBuffer.STRIDE];
+        active = new int[maxDepth + 2][depths.length];
+    }
+
+    /**
+     * Walks the tiling below every triangle of rootTri once for all the windows. Each window gets the tiles at its
+     * depth that overlap it, in the same order as the last level of TileBuffer.buildLevels with an overlapping filter
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param rects   x, y and length of every window, one after another
+     * @param depths  how many generations to go down for every window
+     * @param visitor receives the tiles
+     */
+    public static void walk(TileBuffer rootTri, double[] rects, int[] depths, QueryVisitor visitor) {
+        RectangleQuery query = new RectangleQuery(rootTri, rects, depths, visitor);
+
+        for (int root = 0; root < rootTri.size(); root++)
+            query.walkRoot(root);
+    }
+
+    /**
+     * Collects the tiles of every subsection, each at its own depth
+     *
+     * @param rootTri  the triangles which the function will build tiling in
+     * @param sections the windows
+     * @return the tiles of every subsection, in the same order as sections
+     */
+    public static TileBuffer[] collect(TileBuffer rootTri, List<Subsection> sections) {
+        double[] rects = new double[3 * sections.size()];
+        int[] depths = new int[sections.size()];
+        for (int i = 0; i < depths.length; i++) {
+            Subsection section = sections.get(i);
+            rects[3 * i] = section.getRectX();
+            rects[3 * i + 1] = section.getRectY();
+            rects[3 * i + 2] = section.getRectLength();
+            depths[i] = section.getDepth();
+        }
+
+        TileBuffer[] tiles = new TileBuffer[depths.length];
+        for (int i = 0; i < tiles.length; i++)
+            tiles[i] = new TileBuffer();
+
+        walk(rootTri, rects, depths, (query, type, pts, offset) -> tiles[query].add(type, pts[offset],
+                pts[offset + 1], pts[offset + 2], pts[offset + 3], pts[offset + 4], pts[offset + 5]));
+        return tiles;
+    }
+
+    private void walkRoot(int root) {
+        types[0] = rootTri.type(root);
+        System.arraycopy(rootTri.coords(), root * TileBuffer.STRIDE, coords, 0, TileBuffer.STRIDE);
+
+        // Every window starts out followed, and the root is checked against them like any other triangle
+        int[] all = active[0];
+        for (int q = 0; q < depths.length; q++)
+            all[q] = q << 1;
+
+        visit(0, 0, depths.length);
+    }
+
+    /**
+     * Routes the triangle in slot index of the level to the windows among active[level] it overlaps, then expands it
+     * for the ones that go deeper
+     *
+     * @param count how many of active[level] the parent still followed
+     */
+    private void visit(int level, int index, int count) {
+        int offset = index * TileBuffer.STRIDE;
+        int[] parent = active[level];
+        int[] next = active[level + 1];
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            int entry = parent[i];
+            int q = entry >>> 1;
+
+            if ((entry & 1) == 0) {
+                double rectX = rects[3 * q];
+                double rectY = rects[3 * q + 1];
+                double rectLength = rects[3 * q + 2];
+                int state = KDPenroseTri.classify(coords, offset, rectX, rectY, rectLength);
+                if (state == KDPenroseTri.OUTSIDE)
+                    continue;
+                if (state == KDPenroseTri.INSIDE)
+                    entry |= 1;
+            }
+
+            if (depths[q] == level)
+                visitor.visit(q, types[index], coords, offset);
+            else
+                next[kept++] = entry;
+        }
+
+        if (kept == 0)
+            return;
+
+        int first = 3 * (level + 1);
+        int end = TileBuffer.subdivide(types[index], coords, offset, types, coords, first, null);
+
+        // Children only write to the levels below theirs, so they all read the same windows from next
+        for (int child = first; child < end; child++)
+            visit(level + 1, child, kept);
+    }
+}
@@ -0,0 +1,121 @@
+package tiling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tiling of the whole root triangle that is kept between depth changes. Going deeper only subdivides the deepest level
+ * built so far, and going back to a depth that was already built just picks out that level again. Levels are stored
+ * with exact coordinates, so every depth up to ExactTileBuffer.MAX_DEPTH comes out right
+ */
+public class RefinableTiling {
+    // Triangles subdivided between checks for cancellation
+    private static final int BATCH = 1 << 16;
+
+    // Every level built so far. Index 0 is the root triangle
+    private final List<ExactTileBuffer> levels = new ArrayList<>();
+
+    private int depth = 0;
+
+    // Screen coordinate copy of the level at screenDepth. Only one is kept, since it is as large as the level itself
+    private TileBuffer screen;
+    private int screenDepth = -1;
+
+    /**
+     * @param baseLength the length of the root triangle's base
+     */
+    public RefinableTiling(int baseLength) {
+        levels.add(ExactTileBuffer.rootTri(baseLength));
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the deepest level built so far. Moving to any depth up to this one does no subdivision
+     */
+    public int getBuiltDepth() {
+        return levels.size() - 1;
+    }
+
+    /**
+     * Moves the tiling to a depth. Only the levels between the deepest one built so far and depth are subdivided, so a
+     * step from depth n to n + 1 costs as much as the new tiles. Going shallower keeps the deeper levels, so coming
+     * back to them costs nothing
+     *
+     * @param depth how many generations down the base tiles are. At most ExactTileBuffer.MAX_DEPTH
+     * @return the base tiles at depth, in screen coordinates
+     */
+    public TileBuffer setDepth(int depth) {
+        return setDepth(depth, () -> false);
+    }
+
+    /**
+     * Same as setDepth(depth), but checks cancelled every BATCH triangles while subdividing. A level that was cut short
+     * is thrown away, while every level finished before it is kept for the next call
+     *
+     * @param cancelled returns true once the caller no longer wants the result
+     * @return the base tiles at depth, in screen coordinates. Null if cancelled returned true first
+     */
+    public TileBuffer setDepth(int depth, BooleanSupplier cancelled) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+        if (depth > ExactTileBuffer.MAX_DEPTH)
+            throw new IllegalArgumentException("Depth too large");
+
+        while (getBuiltDepth() < depth) {
+            ExactTileBuffer leaves = levels.get(getBuiltDepth());
+            ExactTileBuffer next = leaves.nextLevel(3 * leaves.size());
+
+            for (int from = 0; from < leaves.size(); from += BATCH) {
+                if (cancelled.getAsBoolean())
+                    return null;
+                leaves.subdivide(from, Math.min(from + BATCH, leaves.size()), null, next);
+            }
+
+            levels.add(next);
+        }
+
+        if (cancelled.getAsBoolean())
+            return null;
+
+        this.depth = depth;
+        return getLeaves();
+    }
+
+    /**
+     * @return the base tiles at the current depth, in screen coordinates
+     */
+    public TileBuffer getLeaves() {
+        if (screenDepth != depth) {
+            // Lets the old copy go before the new one is made
+            screen = null;
+            screen = levels.get(depth).toScreen();
+            screenDepth = depth;
+        }
+
+        return screen;
+    }
+
+    /**
+     * Frees every level deeper than depth and moves the tiling up to depth if it is deeper. Going deeper afterwards
+     * builds them again
+     *
+     * @param depth the deepest level to keep
+     */
+    public void trim(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        while (getBuiltDepth() > depth)
+            levels.remove(getBuiltDepth());
+
+        this.depth = Math.min(this.depth, depth);
+        if (screenDepth > depth) {
+            screen = null;
+            screenDepth = -1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package tiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one call to TilePainter.paint
+ */
+@Name("tiling.Render")
+@Label("Tiling Render")
+@Category("Tiling")
+@Description("Draws a generation onto a surface")
+class RenderEvent extends jdk.jfr.Event {
+    @Label("Tiles")
+    @Description("Base tiles drawn")
+    long tiles;
+
+    @Label("Ghost")
+    boolean ghost;
+
+    @Label("Surface")
+    String surface;
+}
@@ -0,0 +1,139 @@
+package tiling;
+
+import java.util.Random;
+
+/**
+ * Square subsection of the root triangle, along with the depth that gives it about DENSITY_CONSTANT tiles. Picked
+ * from a Random, so the same seed always gives the same subsection
+ */
+public class Subsection {
+    // Positions random picks before giving up on finding one that fits the minimum length
+    private static final int MAX_TRIES = 10_000;
+
+    private final int rectX;
+    private final int rectY;
+    private final int rectLength;
+    private final int depth;
+
+    public Subsection(int baseLength, int rectX, int rectY, int rectLength) {
+        if (rectLength < 1)
+            throw new IllegalArgumentException("Rectangle length less than 1");
+
+        this.rectX = rectX;
+        this.rectY = rectY;
+        this.rectLength = rectLength;
+        depth = PenroseTiling.calcDepth(TileBuffer.rootHeight(baseLength), rectLength);
+    }
+
+    /**
+     * Picks a square that lies within the root triangle. This assumes the root triangle's base is horizontal
+     *
+     * @param r          where the coordinates come from
+     * @param baseLength the length of the root triangle's base
+     * @param buffer     keeps the square away from the extremes of the triangle. Also controls its minimum width
+     * @return the square subsection
+     */
+    public static Subsection random(Random r, int baseLength, int buffer) {
+        return random(r, baseLength, buffer, buffer / 2, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as random(r, baseLength, buffer), but only picks squares with a side between minLength and maxLength. With
+     * minLength = buffer / 2 and no upper limit it picks the same square for the same Random. Positions too small for
+     * minLength are picked again, so a minLength only a few spots in the triangle allow can take a while
+     *
+     * @param minLength the shortest side the square can have
+     * @param maxLength the longest side the square can have
+     * @throws IllegalArgumentException if the arguments are out of range, or no position fits minLength after
+     *                                  MAX_TRIES tries
+     */
+    public static Subsection random(Random r, int baseLength, int buffer, int minLength, int maxLength) {
+        checkArguments(baseLength, buffer, minLength, maxLength);
+        int triHeight = TileBuffer.rootHeight(baseLength);
+
+        for (int tries = 0; tries < MAX_TRIES; tries++) {
+            // Initializes the upper y coordinate of the rectangle. Cannot be within buffer of the top or bottom
+            int rectY = r.nextInt(triHeight - 2 * buffer) + buffer;
+
+            // Length of line in the triangle that parallel to the baseline and passes. Useful in calculating rectX and
+            // rectLength
+            double y1BaseLength = Math.abs(2 * rectY / Math.tan(Math.PI / 5));
+
+            // Initializes a random x coordinate used for either the left or right x coordinate of the rectangle
+            int rectX = baseLength / 2 + (r.nextBoolean() ? 1 : -1) * r.nextInt((int) (y1BaseLength / 2));
+
+            // The longest length that keeps the rectangle from being forced outside the bounds of the triangle
+            int fit = (int) Math.min(triHeight - rectY, Math.abs(baseLength / 2 - rectX) + y1BaseLength / 2) - buffer +
+                    buffer / 2 - 1;
+            int longest = Math.min(fit, maxLength);
+            if (longest < minLength)
+                continue;
+
+            // Initializes the length of the rectangle
+            int rectLength = r.nextInt(longest - minLength + 1) + minLength;
+
+            // Ensures rectX into the left point of the rectangle
+            rectX = rectX < baseLength / 2 ? rectX : rectX - rectLength;
+
+            return new Subsection(baseLength, rectX, rectY, rectLength);
+        }
+
+        throw new IllegalArgumentException("No square with a side of at least " + minLength + " found");
+    }
+
+    /**
+     * Checks the arguments of random before any subsection is picked, so callers handing them out to several threads
+     * can fail early
+     *
+     * @throws IllegalArgumentException if random would reject the arguments outright
+     */
+    public static void checkArguments(int baseLength, int buffer, int minLength, int maxLength) {
+        int triHeight = TileBuffer.rootHeight(baseLength);
+
+        // Below 3 the spot next to the top can leave no room for any length
+        if (buffer < 3)
+            throw new IllegalArgumentException("Buffer less than 3");
+        if (2 * buffer >= triHeight)
+            throw new IllegalArgumentException("Buffer has to be less than half the triangle's height, " +
+                    (triHeight + 1) / 2);
+        if (minLength < 1)
+            throw new IllegalArgumentException("Minimum length less than 1");
+        if (maxLength < minLength)
+            throw new IllegalArgumentException("Maximum length less than minimum length");
+
+        // No position allows more than this, even right at the bottom of the triangle
+        int longest = triHeight - 2 * buffer + buffer / 2 - 1;
+        if (minLength > longest)
+            throw new IllegalArgumentException("Minimum length more than " + longest);
+    }
+
+    public int getRectX() {
+        return rectX;
+    }
+
+    public int getRectY() {
+        return rectY;
+    }
+
+    public int getRectLength() {
+        return rectLength;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Filter for the triangles that overlap the square
+     */
+    public boolean overlapping(double[] pts, int offset) {
+        return KDPenroseTri.overlapping(pts, offset, rectX, rectY, rectLength);
+    }
+
+    /**
+     * Filter for the triangles that lie entirely within the square, whose subtrees can be stamped from templates
+     */
+    public boolean inside(double[] pts, int offset) {
+        return KDPenroseTri.inside(pts, offset, rectX, rectY, rectLength);
+    }
+}
@@ -0,0 +1,423 @@
+package tiling;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Substitution tiling driven by a table instead of hand written arithmetic. Every prototile type lists its children
+ * as a type and three points in the canonical frame of SubtreeTemplateCache, where a point (u, v) means
+ * p1 + u * (p2 - p1) + v * (p3 - p1). Subdivision commutes with affine maps, so this one table covers every triangle of
+ * the type whatever its size, position or orientation
+ * <p>
+ * The table is compiled once into primitive arrays, with every point turned into weights on the parent's corners:
+ * (1 - u - v) * p1 + u * p2 + v * p3. A corner then comes out exactly, and a point two children share comes out the
+ * same bit for bit in both, since they multiply the same corners by the same weights. Every rule set runs through the
+ * same allocation free kernel, apart from KITE_DART, which deliberately keeps the hand written TileBuffer.subdivide
+ */
+public class SubstitutionRules {
+    // Used by the kite/dart and rhomb rules
+    private static final double INV_PHI = TileBuffer.INV_PHI;
+    private static final double INV_PHI_SQ = TileBuffer.INV_PHI_SQ;
+
+    /**
+     * Partition rules of TileBuffer.subdivide as a table, child for child in the same order
+     */
+    static final double[][] KITE_DART_TABLE = {
+            {
+                    2, 0, INV_PHI_SQ, 0, 0, INV_PHI, 0,
+                    1, 0, 1, 0, INV_PHI_SQ, INV_PHI, 0,
+                    0, 0, 1, INV_PHI, 0, 1, 0
+            },
+            {
+                    3, INV_PHI_SQ, 0, 0, INV_PHI, 0, 0,
+                    0, 1, 0, 0, INV_PHI, INV_PHI_SQ, 0,
+                    1, 1, 0, 0, 1, 0, INV_PHI
+            },
+            {
+                    2, INV_PHI_SQ, INV_PHI, 0, 1, 0, 0,
+                    1, 1, 0, INV_PHI_SQ, INV_PHI, 0, 0
+            },
+            {
+                    3, INV_PHI, INV_PHI_SQ, 0, 0, 1, 0,
+                    0, 0, 1, 0, 0, INV_PHI, INV_PHI_SQ
+            }
+    };
+
+    /**
+     * Kite/dart rules. The counts come from KITE_DART_TABLE, but the triangles deliberately don't: they come from
+     * TileBuffer.subdivide, which works out every new point once per parent instead of once per child, so they match
+     * the rest of the kite/dart code bit for bit. The table kernel gives the same triangles to within rounding
+     */
+    public static final SubstitutionRules KITE_DART = new SubstitutionRules("kite/dart", 0, 2, true,
+            KITE_DART_TABLE);
+
+    /**
+     * Rhomb (P3) rules on Robinson triangles, with the types TileTypes.THIN_RHOMB and TileTypes.THICK_RHOMB. The thin
+     * half has its 36 degree angle at p1 and the thick half its 108 degree angle, and the two halves of a rhomb share
+     * their p2 - p3 edge. Children can be mirror images of their parent, which the affine maps handle like any other
+     * child
+     */
+    public static final SubstitutionRules RHOMB = new SubstitutionRules("rhomb", TileTypes.THIN_RHOMB,
+            TileTypes.THICK_RHOMB, new double[][]{
+            {
+                    4, 0, 1, INV_PHI, 0, 1, 0,
+                    5, INV_PHI, 0, 0, 1, 0, 0
+            },
+            {
+                    5, INV_PHI_SQ, INV_PHI, 0, 1, 0, 0,
+                    5, INV_PHI_SQ, 0, INV_PHI_SQ, INV_PHI, 1, 0,
+                    4, INV_PHI_SQ, INV_PHI, INV_PHI_SQ, 0, 0, 0
+            }
+    });
+
+    // Values per child in the table handed to the constructor: the type, then u and v of p1, p2 and p3
+    private static final int CHILD_VALUES = 7;
+
+    // Weights per child in the compiled table: the weights of p1, p2 and p3 on the parent's corners for p1, p2 and p3
+    private static final int CHILD_WEIGHTS = 9;
+
+    private final String name;
+    private final int firstType;
+    private final int typeCount;
+    private final int maxChildren;
+
+    // Type of the triangle generations start from
+    private final int rootType;
+
+    // Whether triangles are subdivided by TileBuffer.subdivide instead of the table
+    private final boolean handWritten;
+
+    // How many triangles a level has compared to the one above it, once the tiling has settled
+    private final double growth;
+
+    // Type firstType + t has children childStart[t] to childStart[t + 1] - 1
+    private final int[] childStart;
+    private final byte[] childType;
+    private final double[] weights;
+
+    /**
+     * @param name      what the rules are called
+     * @param firstType the type id of the first row. Rows take the ids after it in order, and the ids have to mean in
+     *                  TileTypes what the rows make
+     * @param rootType  the type rootTri starts from. Its triangle has a 108 degree angle at p1 and 36 degree ones at
+     *                  p2 and p3
+     * @param rules     one row per type. Every child takes CHILD_VALUES values: its type, then u and v of its p1, p2
+     *                  and p3 in the parent's canonical frame
+     */
+    public SubstitutionRules(String name, int firstType, int rootType, double[][] rules) {
+        this(name, firstType, rootType, false, rules);
+    }
+
+    private SubstitutionRules(String name, int firstType, int rootType, boolean handWritten, double[][] rules) {
+        if (rules.length < 1)
+            throw new IllegalArgumentException("Need at least 1 type");
+        if (firstType < 0 || firstType + rules.length > TileTypes.COUNT)
+            throw new IllegalArgumentException("Types outside TileTypes");
+        if (rootType < firstType || rootType >= firstType + rules.length)
+            throw new IllegalArgumentException("Invalid type");
+
+        this.name = name;
+        this.firstType = firstType;
+        this.rootType = rootType;
+        this.handWritten = handWritten;
+        typeCount = rules.length;
+        childStart = new int[typeCount + 1];
+
+        int children = 0;
+        int widest = 0;
+        for (int type = 0; type < typeCount; type++) {
+            if (rules[type].length == 0 || rules[type].length % CHILD_VALUES != 0)
+                throw new IllegalArgumentException("Every child needs a type and three points");
+
+            childStart[type] = children;
+            children += rules[type].length / CHILD_VALUES;
+            widest = Math.max(widest, rules[type].length / CHILD_VALUES);
+        }
+        childStart[typeCount] = children;
+
+        childType = new byte[children];
+        weights = new double[CHILD_WEIGHTS * children];
+
+        for (int type = 0; type < typeCount; type++)
+            for (int i = 0; i < rules[type].length; i += CHILD_VALUES) {
+                int child = childStart[type] + i / CHILD_VALUES;
+                int each = (int) rules[type][i];
+                if (each != rules[type][i] || each < firstType || each >= firstType + typeCount)
+                    throw new IllegalArgumentException("Invalid type");
+                childType[child] = (byte) each;
+
+                for (int point = 0; point < 3; point++) {
+                    double u = rules[type][i + 1 + 2 * point];
+                    double v = rules[type][i + 2 + 2 * point];
+                    int w = CHILD_WEIGHTS * child + 3 * point;
+                    weights[w] = 1 - u - v;
+                    weights[w + 1] = u;
+                    weights[w + 2] = v;
+                }
+            }
+
+        maxChildren = widest;
+        growth = calcGrowth();
+    }
+
+    /**
+     * Largest eigenvalue of the substitution matrix, found by power iteration. For primitive rules like these it
+     * converges to the growth rate of every type's subtree
+     */
+    private double calcGrowth() {
+        double[] count = new double[typeCount];
+        Arrays.fill(count, 1);
+        double rate = 1;
+
+        for (int iteration = 0; iteration < 100; iteration++) {
+            double[] next = new double[typeCount];
+            for (int type = 0; type < typeCount; type++)
+                for (int child = childStart[type]; child < childStart[type + 1]; child++)
+                    next[childType[child] - firstType] += count[type];
+
+            double total = 0;
+            for (double each : next)
+                total += each;
+            double sum = 0;
+            for (double each : count)
+                sum += each;
+
+            rate = total / sum;
+            for (int type = 0; type < typeCount; type++)
+                next[type] /= total;
+            count = next;
+        }
+
+        return rate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type id of the first type. The rules cover getTypeCount() ids from it
+     */
+    public int getFirstType() {
+        return firstType;
+    }
+
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    /**
+     * @return the most children any type has. Subdividing n triangles never needs more than n times this many slots
+     */
+    public int getMaxChildren() {
+        return maxChildren;
+    }
+
+    /**
+     * @return about how many times as many triangles each level has as the one above it
+     */
+    public double getGrowth() {
+        return growth;
+    }
+
+    /**
+     * Builds the triangle generations start from, with the same corners as TileBuffer.rootTri so it fills the same
+     * part of a baseLength wide square
+     *
+     * @param baseLength the length of the root triangle's base
+     * @return a buffer holding only the root triangle
+     */
+    public TileBuffer rootTri(int baseLength) {
+        int triHeight = TileBuffer.rootHeight(baseLength);
+
+        TileBuffer rootTri = new TileBuffer(1);
+        rootTri.add(rootType, baseLength / 2., 0, 0, triHeight, baseLength, triHeight);
+        return rootTri;
+    }
+
+    /**
+     * Counts every triangle from the root of rootTri down to a depth, root and interior triangles included
+     *
+     * @param depth how many generations down the base tiles are
+     * @return how many triangles every level from 0 to depth holds together
+     */
+    public BigInteger nodeCount(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        BigInteger[] count = new BigInteger[typeCount];
+        Arrays.fill(count, BigInteger.ZERO);
+        count[rootType - firstType] = BigInteger.ONE;
+        BigInteger total = BigInteger.ONE;
+
+        for (int level = 1; level <= depth; level++) {
+            BigInteger[] next = new BigInteger[typeCount];
+            Arrays.fill(next, BigInteger.ZERO);
+            for (int type = 0; type < typeCount; type++)
+                for (int child = childStart[type]; child < childStart[type + 1]; child++)
+                    next[childType[child] - firstType] = next[childType[child] - firstType].add(count[type]);
+
+            count = next;
+            for (BigInteger each : count)
+                total = total.add(each);
+        }
+
+        return total;
+    }
+
+    /**
+     * Subdivides one triangle by the table. The caller has to make sure there is room for getMaxChildren() more
+     * triangles at dstIndex
+     *
+     * @param type     the type of the parent triangle
+     * @param src      array holding the parent's points
+     * @param srcOff   offset of the parent's p1 x coordinate in src
+     * @param dstTypes array the children's types are written to
+     * @param dst      array the children's points are written to
+     * @param dstIndex index of the first free triangle slot in dstTypes and dst
+     * @param setTri   filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @return the index of the first free triangle slot after the kept children are written
+     */
+    public int subdivide(int type, double[] src, int srcOff, byte[] dstTypes, double[] dst, int dstIndex,
+                         TileBuffer.CheckTile setTri) {
+        if (handWritten)
+            return TileBuffer.subdivide(type, src, srcOff, dstTypes, dst, dstIndex, setTri);
+        if (type < firstType || type >= firstType + typeCount)
+            throw new IllegalArgumentException("Invalid type");
+
+        double x1 = src[srcOff];
+        double y1 = src[srcOff + 1];
+        double x2 = src[srcOff + 2];
+        double y2 = src[srcOff + 3];
+        double x3 = src[srcOff + 4];
+        double y3 = src[srcOff + 5];
+
+        int end = childStart[type - firstType + 1];
+        for (int child = childStart[type - firstType]; child < end; child++) {
+            int o = dstIndex * TileBuffer.STRIDE;
+            int w = CHILD_WEIGHTS * child;
+
+            dstTypes[dstIndex] = childType[child];
+            dst[o] = weights[w] * x1 + weights[w + 1] * x2 + weights[w + 2] * x3;
+            dst[o + 1] = weights[w] * y1 + weights[w + 1] * y2 + weights[w + 2] * y3;
+            dst[o + 2] = weights[w + 3] * x1 + weights[w + 4] * x2 + weights[w + 5] * x3;
+            dst[o + 3] = weights[w + 3] * y1 + weights[w + 4] * y2 + weights[w + 5] * y3;
+            dst[o + 4] = weights[w + 6] * x1 + weights[w + 7] * x2 + weights[w + 8] * x3;
+            dst[o + 5] = weights[w + 6] * y1 + weights[w + 7] * y2 + weights[w + 8] * y3;
+
+            if (setTri == null || setTri.keep(dst, o))
+                dstIndex++;
+        }
+
+        return dstIndex;
+    }
+
+    /**
+     * Same as level.subdivide(setTri, next), but by this table
+     *
+     * @param level  the triangles to subdivide
+     * @param setTri filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @param next   the buffer holding the next level of the tiling
+     */
+    public void subdivide(TileBuffer level, TileBuffer.CheckTile setTri, TileBuffer next) {
+        next.ensureCapacity(next.size() + maxChildren * level.size());
+
+        byte[] types = level.types();
+        double[] coords = level.coords();
+        byte[] dstTypes = next.types();
+        double[] dst = next.coords();
+        int size = next.size();
+        for (int i = 0; i < level.size(); i++)
+            size = subdivide(types[i], coords, i * TileBuffer.STRIDE, dstTypes, dst, size, setTri);
+
+        next.setSize(size);
+    }
+
+    /**
+     * Same as TileBuffer.buildLevels, but by this table
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public TileBuffer[] buildLevels(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri) {
+        return buildLevels(rootTri, depth, setTri, null, 0);
+    }
+
+    /**
+     * Same as buildLevels(rootTri, depth, setTri), but records what every level went through into stats
+     *
+     * @param stats     where the counters go. Null records nothing
+     * @param rootLevel the level rootTri is at in the whole generation
+     */
+    TileBuffer[] buildLevels(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri, GenerationStats stats,
+                             int rootLevel) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = new TileBuffer(maxChildren * levels[level - 1].size());
+
+            if (stats == null) {
+                subdivide(levels[level - 1], setTri, levels[level]);
+            } else {
+                long start = System.nanoTime();
+                GenerationStats.Counter counter = GenerationStats.counter(setTri);
+                subdivide(levels[level - 1], counter, levels[level]);
+                stats.record(rootLevel + level, counter, System.nanoTime() - start);
+            }
+        }
+
+        return levels;
+    }
+
+    /**
+     * Same as TileBuffer.buildLevels(rootTri, depth, setTri, coarse, aggregates), but by this table
+     *
+     * @param rootTri    the triangles which the function will build tiling in
+     * @param depth      the most generations this method will go down
+     * @param setTri     filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                   everything
+     * @param coarse     accepts triangles that are not worth subdividing any further
+     * @param aggregates the buffer the triangles coarse accepted are appended to
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public TileBuffer[] buildLevels(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                    TileBuffer.CheckTile coarse, TileBuffer aggregates) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            TileBuffer parent = levels[level - 1];
+            TileBuffer next = new TileBuffer(maxChildren * parent.size());
+            levels[level] = next;
+
+            byte[] types = parent.types();
+            double[] coords = parent.coords();
+            int size = 0;
+            for (int i = 0; i < parent.size(); i++) {
+                int o = i * TileBuffer.STRIDE;
+                if (coarse.keep(coords, o))
+                    aggregates.add(types[i], coords[o], coords[o + 1], coords[o + 2], coords[o + 3], coords[o + 4],
+                            coords[o + 5]);
+                else
+                    size = subdivide(types[i], coords, o, next.types(), next.coords(), size, setTri);
+            }
+            next.setSize(size);
+        }
+
+        return levels;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
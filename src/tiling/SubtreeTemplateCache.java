@@ -0,0 +1,205 @@
+package tiling;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of canonical subtrees. Every partition rule only ever places new points at fixed fractions along a parent's
+ * edges, so the subtree below a triangle is the subtree below a canonical triangle of the same type pushed through
+ * the affine map that takes the canonical triangle onto it. Templates are built in the canonical frame p1 = (0, 0),
+ * p2 = (1, 0), p3 = (0, 1), where a point (u, v) means p1 + u * (p2 - p1) + v * (p3 - p1), and stamped into place
+ * instead of running the subdivision again
+ * <p>
+ * Templates are kept per (type, depth) until their total size passes the memory cap, after which the least recently
+ * used ones are dropped. Safe to use from several threads
+ */
+public class SubtreeTemplateCache {
+    // Memory used by one triangle of a template. One byte for the type and 6 doubles for the points
+    private static final long BYTES_PER_TILE = 1 + TileBuffer.STRIDE * Double.BYTES;
+
+    private final long maxBytes;
+    private long bytes = 0;
+
+    // Access ordered so iteration starts at the least recently used template
+    private final LinkedHashMap<Integer, TileBuffer[]> templates = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxBytes the most memory the templates may use together
+     */
+    public SubtreeTemplateCache(long maxBytes) {
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Memory cap less than 0");
+
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the canonical subtree of a type, building it if it isn't cached. A template bigger than the cap is built
+     * every time and never stored
+     *
+     * @param type  the type of the subtree's root
+     * @param depth how many generations the subtree goes down
+     * @return every level of the subtree in the canonical frame
+     */
+    public TileBuffer[] template(int type, int depth) {
+        if (type < 0 || type > 3)
+            throw new IllegalArgumentException("Invalid type");
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        Integer key = depth * 4 + type;
+
+        synchronized (this) {
+            TileBuffer[] template = templates.get(key);
+            if (template != null)
+                return template;
+        }
+
+        // Built outside the lock so other threads can keep stamping. Two threads may both build the same template,
+        // in which case the first one stored wins
+        TileBuffer root = new TileBuffer(1);
+        root.add(type, 0, 0, 1, 0, 0, 1);
+        TileBuffer[] template = TileBuffer.buildLevels(root, depth, null);
+
+        long size = 0;
+        for (TileBuffer level : template)
+            size += level.size() * BYTES_PER_TILE;
+
+        if (size > maxBytes)
+            return template;
+
+        synchronized (this) {
+            TileBuffer[] existing = templates.putIfAbsent(key, template);
+            if (existing != null)
+                return existing;
+
+            bytes += size;
+            Iterator<Map.Entry<Integer, TileBuffer[]>> eldest = templates.entrySet().iterator();
+            while (bytes > maxBytes) {
+                TileBuffer[] evicted = eldest.next().getValue();
+                eldest.remove();
+                for (TileBuffer level : evicted)
+                    bytes -= level.size() * BYTES_PER_TILE;
+            }
+        }
+
+        return template;
+    }
+
+    /**
+     * Stamps the subtree below a triangle into place. Level k of the subtree (the triangle itself being level 0) is
+     * appended to out[outLevel + k]
+     *
+     * @param type     the type of the triangle
+     * @param pts      array holding the triangle's points
+     * @param offset   offset of the triangle's p1 x coordinate in pts
+     * @param depth    how many generations the subtree goes down
+     * @param out      the levels the subtree is appended to
+     * @param outLevel the level of out the triangle itself belongs to
+     * @param interior whether the levels above the last one are stamped too. If false only out[outLevel + depth] is
+     *                 written
+     */
+    public void stamp(int type, double[] pts, int offset, int depth, TileBuffer[] out, int outLevel,
+                      boolean interior) {
+        stamp(type, pts, offset, depth, out, outLevel, interior ? 0 : depth);
+    }
+
+    /**
+     * Same as TileBuffer.buildLevels, but any triangle inside accepts has its whole subtree stamped from a template
+     * without running setTri on it. The same triangles come out, though not in the same order within a level
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @param inside  accepts triangles whose whole subtree would pass setTri. Null stamps nothing
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public TileBuffer[] buildLevels(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                    TileBuffer.CheckTile inside) {
+        return buildLevels(rootTri, depth, setTri, inside, null, 0);
+    }
+
+    /**
+     * Same as buildLevels(rootTri, depth, setTri, inside), but records what every level went through into stats.
+     * Time spent stamping below a triangle counts towards the level after it, along with that level's subdivision
+     *
+     * @param stats     where the counters go. Null records nothing
+     * @param rootLevel the level rootTri is at in the whole generation
+     */
+    TileBuffer[] buildLevels(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                             TileBuffer.CheckTile inside, GenerationStats stats, int rootLevel) {
+        if (inside == null)
+            return TileBuffer.buildLevels(rootTri, depth, setTri, stats, rootLevel);
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+        for (int level = 1; level <= depth; level++)
+            levels[level] = new TileBuffer();
+
+        // Triangles of the current level that were made by subdivision rather than stamped. Only these still need
+        // to be looked at
+        TileBuffer frontier = rootTri;
+
+        // Triangles of the frontier that aren't inside and still need the regular subdivision
+        TileBuffer partial = new TileBuffer();
+
+        for (int level = 0; level < depth; level++) {
+            long start = stats == null ? 0 : System.nanoTime();
+            double[] pts = frontier.coords();
+
+            partial.clear();
+            for (int i = 0; i < frontier.size(); i++) {
+                int o = i * TileBuffer.STRIDE;
+                if (inside.keep(pts, o))
+                    stamp(frontier.type(i), pts, o, depth - level, levels, level, 1);
+                else
+                    partial.add(frontier.type(i), pts[o], pts[o + 1], pts[o + 2], pts[o + 3], pts[o + 4],
+                            pts[o + 5]);
+            }
+
+            frontier = new TileBuffer(3 * partial.size());
+            if (stats == null) {
+                partial.subdivide(setTri, frontier);
+            } else {
+                GenerationStats.Counter counter = GenerationStats.counter(setTri);
+                partial.subdivide(counter, frontier);
+                stats.record(rootLevel + level + 1, counter, System.nanoTime() - start);
+            }
+            levels[level + 1].addAll(frontier);
+        }
+
+        return levels;
+    }
+
+    /**
+     * Stamps the levels of the subtree below a triangle from firstLevel down. out[outLevel + k] receives level k
+     */
+    private void stamp(int type, double[] pts, int offset, int depth, TileBuffer[] out, int outLevel,
+                       int firstLevel) {
+        TileBuffer[] template = template(type, depth);
+
+        for (int level = firstLevel; level <= depth; level++)
+            transform(template[level], pts, offset, out[outLevel + level]);
+    }
+
+    /**
+     * Appends every triangle of a canonical template to out, mapped onto the triangle at pts[offset]
+     */
+    private static void transform(TileBuffer template, double[] pts, int offset, TileBuffer out) {
+        double x1 = pts[offset];
+        double y1 = pts[offset + 1];
+        double ux = pts[offset + 2] - x1;
+        double uy = pts[offset + 3] - y1;
+        double vx = pts[offset + 4] - x1;
+        double vy = pts[offset + 5] - y1;
+
+        out.addMapped(template, x1, y1, ux, uy, vx, vy);
+    }
+}
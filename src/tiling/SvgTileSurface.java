@@ -0,0 +1,116 @@
+package tiling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * TileSurface that streams an SVG document to a Writer as it is drawn, so even very large patches are never held in
+ * memory. The document is finished by close()
+ */
+public class SvgTileSurface implements TileSurface, Closeable {
+    // Width of lines drawn
+    private static final int LINE_WIDTH = 1;
+
+    // Coordinates are written with this many decimal places
+    private static final double PRECISION = 100;
+
+    private final Writer out;
+
+    // Reused to build each element before it is written
+    private final StringBuilder element = new StringBuilder(128);
+
+    /**
+     * Writes the document header straight away
+     *
+     * @param out        where the document is written. Should be buffered
+     * @param width      width of the document in pixels
+     * @param height     height of the document in pixels
+     * @param background color the document is filled with, as 0xAARRGGBB
+     */
+    public SvgTileSurface(Writer out, int width, int height, int background) {
+        this.out = out;
+
+        element.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height).append("\" viewBox=\"0 0 ").append(width).append(' ')
+                .append(height).append("\" stroke-width=\"").append(LINE_WIDTH).append("\">\n");
+        element.append("<rect width=\"100%\" height=\"100%\"");
+        appendColor("fill", background);
+        element.append("/>\n");
+        flush();
+    }
+
+    @Override
+    public void fillTriangle(int argb, double x1, double y1, double x2, double y2, double x3, double y3) {
+        element.append("<polygon points=\"");
+        appendNumber(x1).append(',');
+        appendNumber(y1).append(' ');
+        appendNumber(x2).append(',');
+        appendNumber(y2).append(' ');
+        appendNumber(x3).append(',');
+        appendNumber(y3).append('"');
+        appendColor("fill", argb);
+        element.append("/>\n");
+        flush();
+    }
+
+    @Override
+    public void fillPolygon(int argb, double[] xs, double[] ys, int count) {
+        element.append("<polygon points=\"");
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                element.append(' ');
+            appendNumber(xs[i]).append(',');
+            appendNumber(ys[i]);
+        }
+        element.append('"');
+        appendColor("fill", argb);
+        element.append("/>\n");
+        flush();
+    }
+
+    @Override
+    public void line(int argb, double x1, double y1, double x2, double y2) {
+        element.append("<line x1=\"");
+        appendNumber(x1).append("\" y1=\"");
+        appendNumber(y1).append("\" x2=\"");
+        appendNumber(x2).append("\" y2=\"");
+        appendNumber(y2).append('"');
+        appendColor("stroke", argb);
+        element.append("/>\n");
+        flush();
+    }
+
+    /**
+     * Writes the closing tag and closes the writer
+     */
+    @Override
+    public void close() throws IOException {
+        out.write("</svg>\n");
+        out.close();
+    }
+
+    private StringBuilder appendNumber(double value) {
+        return element.append(Math.round(value * PRECISION) / PRECISION);
+    }
+
+    private void appendColor(String attribute, int argb) {
+        element.append(' ').append(attribute).append("=\"#");
+        String hex = Integer.toHexString(argb & 0xFFFFFF);
+        element.append("000000", hex.length(), 6).append(hex).append('"');
+
+        int alpha = argb >>> 24;
+        if (alpha != 0xFF)
+            element.append(' ').append(attribute).append("-opacity=\"").append(alpha / 255.).append('"');
+    }
+
+    private void flush() {
+        try {
+            out.append(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        element.setLength(0);
+    }
+}
@@ -0,0 +1,296 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical address of a triangle: the type of the root it descends from and which child it took at every level,
+ * as numbered by the partition rules in TileBuffer.subdivide. Types below the root follow from the child indices, so
+ * an address at depth n is n small numbers no matter how deep it is
+ * <p>
+ * Addresses are found and expanded without absolute coordinates. Every partition rule only places points at fixed
+ * fractions along the parent's edges, so in the canonical frame of SubtreeTemplateCache, where a point (u, v) means
+ * p1 + u * (p2 - p1) + v * (p3 - p1), each child sits at the same place inside every parent of its type. Descending
+ * re-expresses the point in the child's frame, so the numbers stay around 1 at any depth. Local geometry is built in a
+ * frame where the ancestor has p1 = (0, 0) and p2 = (1, 0), so it also stays around 1 at any depth
+ */
+public class TileAddress {
+    // Where p3 lands when a triangle of each type is moved to p1 = (0, 0), p2 = (1, 0). Every triangle of a type has
+    // the same shape and handedness, so this is all the local frames need. Types 0 and 1 have a 36 degree angle at p1
+    // and types 2 and 3 a 108 degree one. y points down like on screen
+    private static final double[] SHAPE_X = {Math.cos(Math.PI / 5), Math.cos(Math.PI / 5), Math.cos(3 * Math.PI / 5),
+            Math.cos(3 * Math.PI / 5)};
+    private static final double[] SHAPE_Y = {-Math.sin(Math.PI / 5), -Math.sin(Math.PI / 5),
+            -Math.sin(3 * Math.PI / 5), -Math.sin(3 * Math.PI / 5)};
+
+    // Children of the canonical triangle (0, 0), (1, 0), (0, 1) of every type, in the order subdivide makes them
+    private static final TileBuffer[] CHILDREN = new TileBuffer[4];
+
+    static {
+        for (int type = 0; type < 4; type++) {
+            TileBuffer canonical = new TileBuffer(1);
+            canonical.add(type, 0, 0, 1, 0, 0, 1);
+            CHILDREN[type] = new TileBuffer(3);
+            canonical.subdivide(null, CHILDREN[type]);
+        }
+    }
+
+    private final int rootType;
+    private final byte[] path;
+
+    public TileAddress(int rootType, byte[] path) {
+        if (rootType < 0 || rootType > 3)
+            throw new IllegalArgumentException("Invalid type");
+
+        int type = rootType;
+        for (byte child : path) {
+            if (child < 0 || child >= CHILDREN[type].size())
+                throw new IllegalArgumentException("Invalid child index");
+            type = CHILDREN[type].type(child);
+        }
+
+        this.rootType = rootType;
+        this.path = path.clone();
+    }
+
+    /**
+     * Finds the triangle at depth that covers a point, following only the one child that holds it at every level. A
+     * point on an edge goes to whichever side it is furthest inside of, which is either when it is exactly on it
+     *
+     * @param rootTri the triangle the tiling is built in. Only its first triangle is used
+     * @param x       the point's x coordinate, in rootTri's coordinates
+     * @param y       the point's y coordinate, in rootTri's coordinates
+     * @param depth   how many generations below the root the triangle is
+     * @return the address of the triangle, or null if the point isn't in rootTri
+     */
+    public static TileAddress locate(TileBuffer rootTri, double x, double y, int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        // The point in the root's canonical frame
+        double x1 = rootTri.x(0, 0);
+        double y1 = rootTri.y(0, 0);
+        double ux = rootTri.x(0, 1) - x1;
+        double uy = rootTri.y(0, 1) - y1;
+        double vx = rootTri.x(0, 2) - x1;
+        double vy = rootTri.y(0, 2) - y1;
+        double det = ux * vy - uy * vx;
+        double u = ((x - x1) * vy - (y - y1) * vx) / det;
+        double v = (ux * (y - y1) - uy * (x - x1)) / det;
+
+        if (u < 0 || v < 0 || u + v > 1)
+            return null;
+
+        int type = rootTri.type(0);
+        byte[] path = new byte[depth];
+        double[] local = new double[2];
+
+        for (int level = 0; level < depth; level++) {
+            TileBuffer children = CHILDREN[type];
+
+            // The child the point is deepest inside of. Its smallest barycentric coordinate is the largest
+            int best = 0;
+            double bestMargin = Double.NEGATIVE_INFINITY;
+            double bestU = 0;
+            double bestV = 0;
+            for (int child = 0; child < children.size(); child++) {
+                toChild(children, child, u, v, local);
+                double margin = Math.min(Math.min(local[0], local[1]), 1 - local[0] - local[1]);
+                if (margin > bestMargin) {
+                    best = child;
+                    bestMargin = margin;
+                    bestU = local[0];
+                    bestV = local[1];
+                }
+            }
+
+            path[level] = (byte) best;
+            type = children.type(best);
+            u = bestU;
+            v = bestV;
+        }
+
+        return new TileAddress(rootTri.type(0), path);
+    }
+
+    /**
+     * Re-expresses a point in a parent's canonical frame in the frame of one of its canonical children
+     */
+    private static void toChild(TileBuffer children, int child, double u, double v, double[] out) {
+        double x1 = children.x(child, 0);
+        double y1 = children.y(child, 0);
+        double ux = children.x(child, 1) - x1;
+        double uy = children.y(child, 1) - y1;
+        double vx = children.x(child, 2) - x1;
+        double vy = children.y(child, 2) - y1;
+        double det = ux * vy - uy * vx;
+
+        out[0] = ((u - x1) * vy - (v - y1) * vx) / det;
+        out[1] = (ux * (v - y1) - uy * (u - x1)) / det;
+    }
+
+    public int getRootType() {
+        return rootType;
+    }
+
+    public int getDepth() {
+        return path.length;
+    }
+
+    /**
+     * @return which child was taken going from level to level + 1
+     */
+    public int childIndex(int level) {
+        return path[level];
+    }
+
+    /**
+     * @return the type of the addressed triangle
+     */
+    public int getType() {
+        return typeAt(path.length);
+    }
+
+    private int typeAt(int depth) {
+        int type = rootType;
+        for (int level = 0; level < depth; level++)
+            type = CHILDREN[type].type(path[level]);
+        return type;
+    }
+
+    /**
+     * @param levels how many levels to go up
+     * @return the address of an ancestor
+     */
+    public TileAddress parent(int levels) {
+        if (levels < 0 || levels > path.length)
+            throw new IllegalArgumentException("Levels outside the address");
+
+        return new TileAddress(rootType, Arrays.copyOf(path, path.length - levels));
+    }
+
+    /**
+     * Works out the addressed triangle in rootTri's coordinates. Fine for the depths doubles can tell apart, see
+     * neighbourhood for deeper ones
+     *
+     * @param rootTri the triangle the tiling is built in. Only its first triangle is used
+     * @return a buffer holding only the addressed triangle
+     */
+    public TileBuffer tile(TileBuffer rootTri) {
+        if (rootTri.type(0) != rootType)
+            throw new IllegalArgumentException("Root has a different type");
+
+        TileBuffer tile = new TileBuffer(1);
+        tile.addMapped(canonicalTile(0), rootTri.x(0, 0), rootTri.y(0, 0),
+                rootTri.x(0, 1) - rootTri.x(0, 0), rootTri.y(0, 1) - rootTri.y(0, 0),
+                rootTri.x(0, 2) - rootTri.x(0, 0), rootTri.y(0, 2) - rootTri.y(0, 0));
+        return tile;
+    }
+
+    /**
+     * Builds the triangles at this address's depth below an ancestor, in the ancestor's local frame: its p1 at (0, 0)
+     * and its p2 at (1, 0). Only the ancestor's subtree is built, so the cost depends on levelsUp and not on how deep
+     * the address is, and the coordinates keep their full precision at any depth
+     *
+     * @param levelsUp how far up the ancestor is. Every level up gives about PHI^2 times as many triangles
+     * @return the triangles below the ancestor, in the order TileBuffer.buildLevels makes them
+     */
+    public TileBuffer neighbourhood(int levelsUp) {
+        if (levelsUp < 0 || levelsUp > path.length)
+            throw new IllegalArgumentException("Levels outside the address");
+
+        int type = typeAt(path.length - levelsUp);
+        TileBuffer ancestor = new TileBuffer(1);
+        ancestor.add(type, 0, 0, 1, 0, SHAPE_X[type], SHAPE_Y[type]);
+
+        return TileBuffer.buildLevels(ancestor, levelsUp, null)[levelsUp];
+    }
+
+    /**
+     * The addressed triangle in the same frame as neighbourhood(levelsUp)
+     *
+     * @param levelsUp how far up the ancestor is
+     * @return a buffer holding only the addressed triangle
+     */
+    public TileBuffer localTile(int levelsUp) {
+        if (levelsUp < 0 || levelsUp > path.length)
+            throw new IllegalArgumentException("Levels outside the address");
+
+        int start = path.length - levelsUp;
+        int ancestorType = typeAt(start);
+
+        TileBuffer tile = new TileBuffer(1);
+        tile.addMapped(canonicalTile(start), 0, 0, 1, 0, SHAPE_X[ancestorType], SHAPE_Y[ancestorType]);
+        return tile;
+    }
+
+    /**
+     * Follows the path from level start down, one canonical child at a time
+     *
+     * @return a buffer holding only the addressed triangle, in the canonical frame of its ancestor at level start
+     */
+    private TileBuffer canonicalTile(int start) {
+        int type = typeAt(start);
+        double[] pts = {0, 0, 1, 0, 0, 1};
+        double[] mapped = new double[TileBuffer.STRIDE];
+
+        for (int level = start; level < path.length; level++) {
+            TileBuffer children = CHILDREN[type];
+            int child = path[level];
+            double x1 = pts[0];
+            double y1 = pts[1];
+            double ux = pts[2] - x1;
+            double uy = pts[3] - y1;
+            double vx = pts[4] - x1;
+            double vy = pts[5] - y1;
+            for (int i = 0; i < TileBuffer.STRIDE; i += 2) {
+                double cu = children.x(child, i / 2);
+                double cv = children.y(child, i / 2);
+                mapped[i] = x1 + cu * ux + cv * vx;
+                mapped[i + 1] = y1 + cu * uy + cv * vy;
+            }
+            System.arraycopy(mapped, 0, pts, 0, TileBuffer.STRIDE);
+            type = children.type(child);
+        }
+
+        TileBuffer tile = new TileBuffer(1);
+        tile.add(type, pts[0], pts[1], pts[2], pts[3], pts[4], pts[5]);
+        return tile;
+    }
+
+    /**
+     * @return the root type, a colon and the child indices, such as 2:0120
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(rootType).append(':');
+        for (byte child : path)
+            builder.append(child);
+        return builder.toString();
+    }
+
+    /**
+     * Reads an address written by toString
+     */
+    public static TileAddress parse(String address) {
+        int colon = address.indexOf(':');
+        if (colon != 1)
+            throw new IllegalArgumentException("Not an address");
+
+        byte[] path = new byte[address.length() - 2];
+        for (int i = 0; i < path.length; i++)
+            path[i] = (byte) (address.charAt(i + 2) - '0');
+
+        return new TileAddress(address.charAt(0) - '0', path);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TileAddress && ((TileAddress) other).rootType == rootType &&
+                Arrays.equals(((TileAddress) other).path, path);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * rootType + Arrays.hashCode(path);
+    }
+}
@@ -0,0 +1,115 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Neighbour graph of the tiles in a TileMesh. Two polygons are neighbours when they share a whole edge, which is
+ * every neighbour since kite/dart and rhomb tilings are edge to edge. Kept CSR style in two int arrays: the neighbours
+ * of polygon i are neighbours[offsets[i] .. offsets[i + 1] - 1], so millions of tiles don't mean millions of lists
+ */
+public class TileAdjacency {
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    private TileAdjacency(int[] offsets, int[] neighbours) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Builds the graph in time linear in the number of triangles. Every edge of a tile is an edge of exactly one of its
+     * halves, so the two outer edges of every half are hashed by their pair of vertex indices, and the second polygon
+     * to reach an edge is linked with the first. Edges only one polygon has are on the boundary of what was generated
+     *
+     * @param mesh the mesh whose polygons become the graph's nodes
+     * @return the neighbour graph, with node i being polygon i of mesh
+     */
+    public static TileAdjacency build(TileMesh mesh) {
+        int polygons = mesh.polygonCount();
+        int triangles = mesh.triangleCount();
+
+        // Every shared edge is reached twice, so there are at most as many pairs as triangles
+        LongIntMap firstPolygon = new LongIntMap(2 * triangles);
+        int[] pairs = new int[2 * triangles];
+        int pairCount = 0;
+
+        for (int triangle = 0; triangle < triangles; triangle++) {
+            int polygon = mesh.polygonOf(triangle);
+
+            // The edge opposite the apex is shared with the mirror and doesn't bound the tile, the two at the apex do
+            int apex = TileTypes.apex(mesh.triangleType(triangle));
+            int a = mesh.triangleVertex(triangle, apex);
+            long first = TileMesh.edgeKey(a, mesh.triangleVertex(triangle, apex == 0 ? 1 : 0));
+            long second = TileMesh.edgeKey(a, mesh.triangleVertex(triangle, apex == 2 ? 1 : 2));
+
+            pairCount = link(firstPolygon, first, polygon, pairs, pairCount);
+            pairCount = link(firstPolygon, second, polygon, pairs, pairCount);
+        }
+
+        int[] offsets = new int[polygons + 1];
+        for (int i = 0; i < 2 * pairCount; i++)
+            offsets[pairs[i] + 1]++;
+        for (int polygon = 0; polygon < polygons; polygon++)
+            offsets[polygon + 1] += offsets[polygon];
+
+        int[] next = Arrays.copyOf(offsets, polygons);
+
+        int[] neighbours = new int[2 * pairCount];
+        for (int pair = 0; pair < pairCount; pair++) {
+            int a = pairs[2 * pair];
+            int b = pairs[2 * pair + 1];
+            neighbours[next[a]++] = b;
+            neighbours[next[b]++] = a;
+        }
+
+        return new TileAdjacency(offsets, neighbours);
+    }
+
+    /**
+     * Hashes one edge of a polygon. If another polygon got there first, the two are appended to pairs
+     *
+     * @return the number of pairs afterwards
+     */
+    private static int link(LongIntMap firstPolygon, long key, int polygon, int[] pairs, int pairCount) {
+        int other = firstPolygon.putIfAbsent(key, polygon);
+        if (other < 0)
+            return pairCount;
+
+        pairs[2 * pairCount] = other;
+        pairs[2 * pairCount + 1] = polygon;
+        return pairCount + 1;
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of shared edges
+     */
+    public int edgeCount() {
+        return neighbours.length / 2;
+    }
+
+    public int degree(int polygon) {
+        return offsets[polygon + 1] - offsets[polygon];
+    }
+
+    public int neighbour(int polygon, int i) {
+        return neighbours[offsets[polygon] + i];
+    }
+
+    /**
+     * @return the CSR offsets. Not copied, so it shouldn't be changed
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the CSR neighbour array. Not copied, so it shouldn't be changed
+     */
+    public int[] neighbours() {
+        return neighbours;
+    }
+}
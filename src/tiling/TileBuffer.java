@@ -0,0 +1,426 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Flat store of kite/dart Penrose triangles. Types are kept in a byte array and the three vertices of every triangle
+ * in one contiguous double array, so a whole level of the tiling lives in two arrays instead of one object (and four
+ * arrays) per triangle. Tile i has type types[i] and its points at coords[6i .. 6i + 5] in the order p1, p2, p3, the
+ * same order KDPenroseTri uses. Types are the ids of TileTypes, and subdivide only knows the kite/dart ones
+ */
+public class TileBuffer {
+    public interface CheckTile {
+        boolean keep(double[] coords, int offset);
+    }
+
+    /**
+     * Tri-state version of CheckTile for buildClassified
+     */
+    public interface ClassifyTile {
+        /**
+         * @return KDPenroseTri.OUTSIDE to drop the triangle, KDPenroseTri.INSIDE if its whole subtree would be kept
+         * and KDPenroseTri.BOUNDARY otherwise
+         */
+        int classify(double[] coords, int offset);
+    }
+
+    // Number of doubles used to store one triangle
+    public static final int STRIDE = 6;
+
+    // Ratio of a child's side to its parent's side, for types 0, 1 and 2
+    public static final double INV_PHI = 1 / KDPenroseTri.PHI;
+
+    // Used by type 3, which moves along its base by (1 / PHI) of (1 / PHI)
+    public static final double INV_PHI_SQ = INV_PHI * INV_PHI;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] types;
+    private double[] coords;
+    private int size = 0;
+
+    public TileBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TileBuffer(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity less than 0");
+
+        types = new byte[capacity];
+        coords = new double[capacity * STRIDE];
+    }
+
+    /**
+     * Builds the root triangle every generation starts from. It is a type 2 triangle whose base is the bottom edge of a
+     * baseLength wide square and whose apex touches the top edge
+     *
+     * @param baseLength the length of the root triangle's base
+     * @return a buffer holding only the root triangle
+     */
+    public static TileBuffer rootTri(int baseLength) {
+        int triHeight = rootHeight(baseLength);
+
+        TileBuffer rootTri = new TileBuffer(1);
+        rootTri.add(2, baseLength / 2., 0, 0, triHeight, baseLength, triHeight);
+        return rootTri;
+    }
+
+    /**
+     * @param baseLength the length of the root triangle's base
+     * @return the height of the root triangle, rounded down to a whole pixel
+     */
+    public static int rootHeight(int baseLength) {
+        return (int) (baseLength / 2 * Math.tan(Math.PI / 5));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte type(int i) {
+        return types[i];
+    }
+
+    /**
+     * Gives direct access to the coordinate array. Only the first size() * STRIDE values are valid
+     *
+     * @return the backing coordinate array
+     */
+    public double[] coords() {
+        return coords;
+    }
+
+    /**
+     * Gives direct access to the type array for kernels that write a whole level at once. Only the first size() values
+     * are valid
+     */
+    byte[] types() {
+        return types;
+    }
+
+    /**
+     * Sets how many triangles are valid after a kernel wrote them straight into the arrays
+     */
+    void setSize(int size) {
+        if (size < 0 || size > types.length)
+            throw new IllegalArgumentException("Size outside the capacity");
+
+        this.size = size;
+    }
+
+    public double x(int i, int point) {
+        return coords[i * STRIDE + 2 * point];
+    }
+
+    public double y(int i, int point) {
+        return coords[i * STRIDE + 2 * point + 1];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Makes sure the buffer can hold at least capacity triangles without growing again
+     *
+     * @param capacity the number of triangles needed
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= types.length)
+            return;
+
+        int newCapacity = Math.max(capacity, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, newCapacity);
+        coords = Arrays.copyOf(coords, newCapacity * STRIDE);
+    }
+
+    /**
+     * Appends a triangle to the end of the buffer
+     *
+     * @return the index of the new triangle
+     */
+    public int add(int type, double x1, double y1, double x2, double y2, double x3, double y3) {
+        if (!TileTypes.isValid(type))
+            throw new IllegalArgumentException("Invalid type");
+
+        ensureCapacity(size + 1);
+
+        int o = size * STRIDE;
+        types[size] = (byte) type;
+        coords[o] = x1;
+        coords[o + 1] = y1;
+        coords[o + 2] = x2;
+        coords[o + 3] = y2;
+        coords[o + 4] = x3;
+        coords[o + 5] = y3;
+
+        return size++;
+    }
+
+    /**
+     * Appends every triangle of another buffer to the end of this one
+     *
+     * @param other the buffer to copy from
+     */
+    public void addAll(TileBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.coords, 0, coords, size * STRIDE, other.size * STRIDE);
+        size += other.size;
+    }
+
+    /**
+     * Appends every triangle of a buffer in a canonical frame, mapping each point (u, v) to
+     * (x1 + u * ux + v * vx, y1 + u * uy + v * vy)
+     *
+     * @param other the buffer to copy from
+     */
+    public void addMapped(TileBuffer other, double x1, double y1, double ux, double uy, double vx, double vy) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+
+        double[] src = other.coords;
+        int o = size * STRIDE;
+        for (int i = 0; i < other.size * STRIDE; i += 2) {
+            coords[o + i] = x1 + src[i] * ux + src[i + 1] * vx;
+            coords[o + i + 1] = y1 + src[i] * uy + src[i + 1] * vy;
+        }
+
+        size += other.size;
+    }
+
+    /**
+     * Subdivides every triangle in this buffer and appends the children that pass setTri to next. Children are written
+     * straight into next's arrays, so no objects are created per triangle
+     *
+     * @param setTri filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @param next   the buffer holding the next level of the tiling
+     */
+    public void subdivide(CheckTile setTri, TileBuffer next) {
+        // Every type has at most 3 children
+        next.ensureCapacity(next.size + 3 * size);
+
+        for (int i = 0; i < size; i++)
+            next.size = subdivide(types[i], coords, i * STRIDE, next.types, next.coords, next.size, setTri);
+    }
+
+    /**
+     * Builds the tiling from rootTri down one level at a time on the calling thread
+     *
+     * @param rootTri the triangles which the function will build tiling in
+     * @param depth   how many generations this method will go down
+     * @param setTri  filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public static TileBuffer[] buildLevels(TileBuffer rootTri, int depth, CheckTile setTri) {
+        return buildLevels(rootTri, depth, setTri, null, 0);
+    }
+
+    /**
+     * Same as buildLevels(rootTri, depth, setTri), but records what every level went through into stats
+     *
+     * @param stats     where the counters go. Null records nothing
+     * @param rootLevel the level rootTri is at in the whole generation
+     */
+    static TileBuffer[] buildLevels(TileBuffer rootTri, int depth, CheckTile setTri, GenerationStats stats,
+                                    int rootLevel) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            levels[level] = new TileBuffer(3 * levels[level - 1].size());
+
+            if (stats == null) {
+                levels[level - 1].subdivide(setTri, levels[level]);
+            } else {
+                long start = System.nanoTime();
+                GenerationStats.Counter counter = GenerationStats.counter(setTri);
+                levels[level - 1].subdivide(counter, levels[level]);
+                stats.record(rootLevel + level, counter, System.nanoTime() - start);
+            }
+        }
+
+        return levels;
+    }
+
+    /**
+     * Builds the tiling from rootTri down, keeping the triangles classifier doesn't put outside. Once a triangle is
+     * inside, its whole subtree is kept without classifying anything in it, so only triangles on the boundary pay for
+     * a test. With a rectangle classifier this keeps the same triangles, in the same order, as buildLevels with the
+     * matching overlapping filter
+     *
+     * @param rootTri    the triangles which the function will build tiling in
+     * @param depth      how many generations this method will go down
+     * @param classifier sorts triangles into outside, boundary and inside
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public static TileBuffer[] buildClassified(TileBuffer rootTri, int depth, ClassifyTile classifier) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        // Whether every triangle of the current level is inside. The root level is never filtered, like in buildLevels
+        boolean[] inside = new boolean[rootTri.size];
+        for (int i = 0; i < rootTri.size; i++)
+            inside[i] = classifier.classify(rootTri.coords, i * STRIDE) == KDPenroseTri.INSIDE;
+
+        for (int level = 1; level <= depth; level++) {
+            TileBuffer parent = levels[level - 1];
+            TileBuffer next = new TileBuffer(3 * parent.size);
+            boolean[] nextInside = new boolean[3 * parent.size];
+            levels[level] = next;
+
+            for (int i = 0; i < parent.size; i++) {
+                int first = next.size;
+                int end = subdivide(parent.types[i], parent.coords, i * STRIDE, next.types, next.coords, first, null);
+
+                if (inside[i]) {
+                    Arrays.fill(nextInside, first, end, true);
+                    next.size = end;
+                    continue;
+                }
+
+                // Kept children are moved down over the dropped ones
+                for (int child = first; child < end; child++) {
+                    int state = classifier.classify(next.coords, child * STRIDE);
+                    if (state == KDPenroseTri.OUTSIDE)
+                        continue;
+
+                    if (child != next.size) {
+                        next.types[next.size] = next.types[child];
+                        System.arraycopy(next.coords, child * STRIDE, next.coords, next.size * STRIDE, STRIDE);
+                    }
+                    nextInside[next.size++] = state == KDPenroseTri.INSIDE;
+                }
+            }
+
+            inside = nextInside;
+        }
+
+        return levels;
+    }
+
+    /**
+     * Builds the tiling from rootTri down, but stops subdividing any triangle coarse accepts. Those go to aggregates
+     * instead of the next level, so each level only holds the triangles that were still being refined
+     *
+     * @param rootTri    the triangles which the function will build tiling in
+     * @param depth      the most generations this method will go down
+     * @param setTri     filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                   everything
+     * @param coarse     accepts triangles that are not worth subdividing any further
+     * @param aggregates the buffer the triangles coarse accepted are appended to
+     * @return every level of the tiling from rootTri (index 0) to depth
+     */
+    public static TileBuffer[] buildLevels(TileBuffer rootTri, int depth, CheckTile setTri, CheckTile coarse,
+                                           TileBuffer aggregates) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        TileBuffer[] levels = new TileBuffer[depth + 1];
+        levels[0] = rootTri;
+
+        for (int level = 1; level <= depth; level++) {
+            TileBuffer parent = levels[level - 1];
+            TileBuffer next = new TileBuffer(3 * parent.size);
+            levels[level] = next;
+
+            for (int i = 0; i < parent.size; i++) {
+                int o = i * STRIDE;
+                if (coarse.keep(parent.coords, o)) {
+                    aggregates.add(parent.types[i], parent.coords[o], parent.coords[o + 1], parent.coords[o + 2],
+                            parent.coords[o + 3], parent.coords[o + 4], parent.coords[o + 5]);
+                } else {
+                    next.size = subdivide(parent.types[i], parent.coords, o, next.types, next.coords, next.size,
+                            setTri);
+                }
+            }
+        }
+
+        return levels;
+    }
+
+    /**
+     * Subdivision kernel shared by everything that works on flat coordinates. These are the kite/dart partition rules
+     * the other kernels (BatchSubdivider, SubstitutionRules.KITE_DART) have to reproduce. The caller has to make sure
+     * there is room for 3 more triangles at dstIndex
+     *
+     * @param type     the type of the parent triangle
+     * @param src      array holding the parent's points
+     * @param srcOff   offset of the parent's p1 x coordinate in src
+     * @param dstTypes array the children's types are written to
+     * @param dst      array the children's points are written to
+     * @param dstIndex index of the first free triangle slot in dstTypes and dst
+     * @param setTri   filter that lets this method work with and without a rectangle constraint. Null keeps everything
+     * @return the index of the first free triangle slot after the kept children are written
+     */
+    public static int subdivide(int type, double[] src, int srcOff, byte[] dstTypes, double[] dst, int dstIndex,
+                                CheckTile setTri) {
+        double x1 = src[srcOff];
+        double y1 = src[srcOff + 1];
+        double x2 = src[srcOff + 2];
+        double y2 = src[srcOff + 3];
+        double x3 = src[srcOff + 4];
+        double y3 = src[srcOff + 5];
+
+        // Handles each of the 4 cases appropriately. Note 0 and 1 are mirrors of each other and so are 2 and 3
+        switch (type) {
+            case 0 -> {
+                double nx1 = x1 + INV_PHI * (x2 - x1);
+                double ny1 = y1 + INV_PHI * (y2 - y1);
+                double nx2 = x3 + INV_PHI * (x1 - x3);
+                double ny2 = y3 + INV_PHI * (y1 - y3);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 2, nx2, ny2, x1, y1, nx1, ny1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 1, x3, y3, nx2, ny2, nx1, ny1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 0, x3, y3, nx1, ny1, x2, y2);
+            }
+            case 1 -> {
+                double nx1 = x2 + INV_PHI * (x1 - x2);
+                double ny1 = y2 + INV_PHI * (y1 - y2);
+                double nx2 = x1 + INV_PHI * (x3 - x1);
+                double ny2 = y1 + INV_PHI * (y3 - y1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 3, nx1, ny1, nx2, ny2, x1, y1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 0, x2, y2, nx2, ny2, nx1, ny1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 1, x2, y2, x3, y3, nx2, ny2);
+            }
+            case 2 -> {
+                double nx1 = x2 + INV_PHI * (x3 - x2);
+                double ny1 = y2 + INV_PHI * (y3 - y2);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 2, nx1, ny1, x3, y3, x1, y1);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 1, x2, y2, nx1, ny1, x1, y1);
+            }
+            case 3 -> {
+                double nx1 = x2 + INV_PHI_SQ * (x3 - x2);
+                double ny1 = y2 + INV_PHI_SQ * (y3 - y2);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 3, nx1, ny1, x1, y1, x2, y2);
+                dstIndex = write(dstTypes, dst, dstIndex, setTri, 0, x3, y3, x1, y1, nx1, ny1);
+            }
+            default -> throw new IllegalArgumentException("Invalid type");
+        }
+
+        return dstIndex;
+    }
+
+    /**
+     * Writes a child into the destination slot and only moves past it if the filter keeps it
+     */
+    private static int write(byte[] dstTypes, double[] dst, int dstIndex, CheckTile setTri, int type,
+                             double x1, double y1, double x2, double y2, double x3, double y3) {
+        int o = dstIndex * STRIDE;
+        dstTypes[dstIndex] = (byte) type;
+        dst[o] = x1;
+        dst[o + 1] = y1;
+        dst[o + 2] = x2;
+        dst[o + 3] = y2;
+        dst[o + 4] = x3;
+        dst[o + 5] = y3;
+
+        return setTri == null || setTri.keep(dst, o) ? dstIndex + 1 : dstIndex;
+    }
+}
@@ -0,0 +1,213 @@
+package tiling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a tile file written by TileFileWriter. Only the index is read onto the heap. The tiles are memory mapped and
+ * decoded one at a time as they are visited, so files larger than the heap can be read
+ */
+public class TileFileReader implements Closeable {
+    // A mapping can't be larger than 2 GB, so the file is mapped in regions of about this size that start on blocks
+    private static final long REGION_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final boolean deltas;
+
+    private final int[] depths;
+    private final long[] tileCounts;
+
+    // Index of every level's first block. Level i has blocks levelStart[i] .. levelStart[i + 1] - 1
+    private final int[] levelStart;
+
+    // Every block's region, offset in that region, tile count and bounding box (minX, minY, maxX, maxY)
+    private final int[] blockRegion;
+    private final int[] blockOffset;
+    private final int[] blockTiles;
+    private final double[] blockBounds;
+
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+
+    public TileFileReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, TileFileWriter.HEADER_BYTES);
+            if (header.getInt() != TileFileWriter.MAGIC)
+                throw new IOException("Not a tile file");
+            if (header.getInt() != TileFileWriter.VERSION)
+                throw new IOException("Unsupported tile file version");
+
+            deltas = (header.getInt() & TileFileWriter.DELTAS) != 0;
+            header.getInt();
+            long indexOffset = header.getLong();
+            int levelCount = header.getInt();
+
+            ByteBuffer index = read(indexOffset, (int) (channel.size() - indexOffset));
+            int blockCount = (index.remaining() - 16 * levelCount) / TileFileWriter.BLOCK_ENTRY_BYTES;
+
+            depths = new int[levelCount];
+            tileCounts = new long[levelCount];
+            levelStart = new int[levelCount + 1];
+            blockRegion = new int[blockCount];
+            blockOffset = new int[blockCount];
+            blockTiles = new int[blockCount];
+            blockBounds = new double[4 * blockCount];
+
+            long regionStart = TileFileWriter.HEADER_BYTES;
+            int block = 0;
+            for (int level = 0; level < levelCount; level++) {
+                depths[level] = index.getInt();
+                tileCounts[level] = index.getLong();
+                levelStart[level + 1] = levelStart[level] + index.getInt();
+
+                for (; block < levelStart[level + 1]; block++) {
+                    long offset = index.getLong();
+                    blockTiles[block] = (int) index.getLong();
+                    for (int i = 0; i < 4; i++)
+                        blockBounds[4 * block + i] = index.getDouble();
+
+                    // Blocks are written back to back, so a new region starts whenever one would run past the limit
+                    if (offset + blockBytes(blockTiles[block]) - regionStart > REGION_BYTES) {
+                        map(regionStart, offset);
+                        regionStart = offset;
+                    }
+                    blockRegion[block] = regions.size();
+                    blockOffset[block] = (int) (offset - regionStart);
+                }
+            }
+            map(regionStart, indexOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Tile file cut short");
+
+        return buffer.flip();
+    }
+
+    private void map(long from, long to) throws IOException {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        regions.add(region);
+    }
+
+    /**
+     * @return bytes a block of tiles takes, types padding included
+     */
+    private long blockBytes(int tiles) {
+        return ((tiles + 7) & ~7) + (long) tiles * TileFileWriter.pointBytes(deltas);
+    }
+
+    public int getLevelCount() {
+        return depths.length;
+    }
+
+    /**
+     * @return how many generations below the root a level's tiles are
+     */
+    public int getDepth(int level) {
+        return depths[level];
+    }
+
+    public long getTileCount(int level) {
+        return tileCounts[level];
+    }
+
+    /**
+     * Visits every tile of a level in the order it was written
+     *
+     * @param leaf passed on to the visitor for every tile
+     */
+    public void read(int level, boolean leaf, TileVisitor visitor) {
+        for (int block = levelStart[level]; block < levelStart[level + 1]; block++)
+            readBlock(block, depths[level], leaf, null, visitor);
+    }
+
+    /**
+     * Visits the tiles of a level that overlap a rectangle. Blocks whose bounding box misses the rectangle are skipped
+     * without touching their tiles, so only the parts of the file near the rectangle are paged in
+     *
+     * @param leaf passed on to the visitor for every tile
+     */
+    public void read(int level, boolean leaf, double rectX, double rectY, double rectLength, TileVisitor visitor) {
+        for (int block = levelStart[level]; block < levelStart[level + 1]; block++) {
+            int b = 4 * block;
+            if (blockBounds[b + 2] < rectX || blockBounds[b] > rectX + rectLength ||
+                    blockBounds[b + 3] < rectY || blockBounds[b + 1] > rectY + rectLength)
+                continue;
+
+            // Blocks entirely within the rectangle don't need their tiles checked
+            boolean inside = blockBounds[b] >= rectX && blockBounds[b + 2] <= rectX + rectLength &&
+                    blockBounds[b + 1] >= rectY && blockBounds[b + 3] <= rectY + rectLength;
+            TileBuffer.CheckTile filter = inside ? null : (pts, offset) ->
+                    KDPenroseTri.overlapping(pts, offset, rectX, rectY, rectLength);
+
+            readBlock(block, depths[level], leaf, filter, visitor);
+        }
+    }
+
+    /**
+     * Reads a whole level onto the heap
+     */
+    public TileBuffer readLevel(int level) {
+        if (tileCounts[level] > Integer.MAX_VALUE / TileBuffer.STRIDE)
+            throw new IllegalArgumentException("Level too large for a TileBuffer");
+
+        TileBuffer buffer = new TileBuffer((int) tileCounts[level]);
+        read(level, true, (type, pts, offset, depth, leaf) ->
+                buffer.add(type, pts[offset], pts[offset + 1], pts[offset + 2], pts[offset + 3], pts[offset + 4],
+                        pts[offset + 5]));
+        return buffer;
+    }
+
+    private void readBlock(int block, int depth, boolean leaf, TileBuffer.CheckTile filter, TileVisitor visitor) {
+        ByteBuffer region = regions.get(blockRegion[block]);
+        int typeAt = blockOffset[block];
+        int tiles = blockTiles[block];
+        int pointAt = typeAt + ((tiles + 7) & ~7);
+
+        // The only copy made. Holds the tile being visited
+        double[] pts = new double[TileBuffer.STRIDE];
+
+        for (int i = 0; i < tiles; i++) {
+            double x1 = region.getDouble(pointAt);
+            double y1 = region.getDouble(pointAt + 8);
+            pts[0] = x1;
+            pts[1] = y1;
+            if (deltas) {
+                pts[2] = x1 + region.getFloat(pointAt + 16);
+                pts[3] = y1 + region.getFloat(pointAt + 20);
+                pts[4] = x1 + region.getFloat(pointAt + 24);
+                pts[5] = y1 + region.getFloat(pointAt + 28);
+                pointAt += 32;
+            } else {
+                for (int j = 2; j < TileBuffer.STRIDE; j++)
+                    pts[j] = region.getDouble(pointAt + 8 * j);
+                pointAt += 48;
+            }
+
+            if (filter == null || filter.keep(pts, 0))
+                visitor.visit(region.get(typeAt + i), pts, 0, depth, leaf);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        regions.clear();
+        channel.close();
+    }
+}
@@ -0,0 +1,231 @@
+package tiling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams levels of the tiling into a binary tile file, which TileFileReader maps back. Only one block of tiles is held
+ * at a time, so a generation walked with TileWalker can be written no matter how large it is
+ * <p>
+ * Everything is little endian. The file starts with a HEADER_BYTES header: MAGIC, VERSION, flags, BLOCK_TILES and the
+ * offset of the index, then the number of levels. Tiles follow in blocks of up to BLOCK_TILES, each holding their types
+ * padded to 8 bytes and then their points. Points are 6 doubles per tile, or with DELTAS p1 as 2 doubles and p2 and p3
+ * as 4 floats relative to p1. The index at the end has, for every level, its depth, tile count and block count, then
+ * every block's offset, tile count and bounding box
+ */
+public class TileFileWriter implements Closeable, TileVisitor {
+    // "PTIL" read as a little endian int
+    static final int MAGIC = 0x4C495450;
+    static final int VERSION = 1;
+
+    // Flag for points stored relative to p1, which takes a third less space. p2 and p3 keep about 7 digits relative to
+    // the size of the tile, which is well past what drawing needs
+    public static final int DELTAS = 1;
+
+    // Most tiles in one block. Every block has its own bounding box, so rectangle reads skip whole blocks at a time
+    static final int BLOCK_TILES = 4096;
+
+    static final int HEADER_BYTES = 32;
+
+    // Size of every block's entry in the index: offset, tile count and bounding box
+    static final int BLOCK_ENTRY_BYTES = 48;
+
+    private final FileChannel channel;
+    private final boolean deltas;
+
+    // The block being filled
+    private final byte[] types = new byte[BLOCK_TILES];
+    private final double[] coords = new double[BLOCK_TILES * TileBuffer.STRIDE];
+    private int size = 0;
+
+    private final ByteBuffer out;
+
+    // Index entries of the level being written and of every level before it
+    private final List<long[]> levelEntries = new ArrayList<>();
+    private final List<long[]> blockEntries = new ArrayList<>();
+    private final List<double[]> blockBounds = new ArrayList<>();
+    private int levelDepth = -1;
+    private long levelTiles;
+    private int levelBlocks;
+
+    private long position = HEADER_BYTES;
+
+    /**
+     * @param file  the file that will be written. Replaced if it already exists
+     * @param flags 0, or DELTAS
+     */
+    public TileFileWriter(Path file, int flags) throws IOException {
+        if ((flags & ~DELTAS) != 0)
+            throw new IllegalArgumentException("Unknown flags");
+
+        deltas = (flags & DELTAS) != 0;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        out = ByteBuffer.allocate(BLOCK_TILES + 8 + BLOCK_TILES * pointBytes(deltas)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return bytes taken by one tile's points
+     */
+    static int pointBytes(boolean deltas) {
+        return deltas ? 32 : 48;
+    }
+
+    /**
+     * Ends the level being written, if any, and starts a new one. Tiles added afterwards belong to it
+     *
+     * @param depth how many generations below the root the level's tiles are
+     */
+    public void startLevel(int depth) throws IOException {
+        endLevel();
+        levelDepth = depth;
+        levelTiles = 0;
+        levelBlocks = 0;
+    }
+
+    public void add(int type, double[] pts, int offset) throws IOException {
+        if (levelDepth < 0)
+            throw new IllegalStateException("No level started");
+
+        types[size] = (byte) type;
+        System.arraycopy(pts, offset, coords, size * TileBuffer.STRIDE, TileBuffer.STRIDE);
+        if (++size == BLOCK_TILES)
+            flushBlock();
+    }
+
+    /**
+     * Writes a whole level
+     */
+    public void writeLevel(int depth, TileBuffer level) throws IOException {
+        startLevel(depth);
+        for (int i = 0; i < level.size(); i++)
+            add(level.type(i), level.coords(), i * TileBuffer.STRIDE);
+    }
+
+    /**
+     * Lets TileWalker stream straight into the level being written. Only use with emitInterior off, since every tile
+     * goes to the current level whatever its depth
+     */
+    @Override
+    public void visit(int type, double[] pts, int offset, int depth, boolean leaf) {
+        try {
+            add(type, pts, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (size == 0)
+            return;
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        out.clear();
+        out.put(types, 0, size);
+        while (out.position() % 8 != 0)
+            out.put((byte) 0);
+
+        // The points as a reader gets them back, so the bounds hold for the rounded float offsets too
+        double[] pts = new double[TileBuffer.STRIDE];
+
+        for (int i = 0; i < size * TileBuffer.STRIDE; i += TileBuffer.STRIDE) {
+            double x1 = coords[i];
+            double y1 = coords[i + 1];
+            pts[0] = x1;
+            pts[1] = y1;
+            out.putDouble(x1).putDouble(y1);
+            for (int j = 2; j < TileBuffer.STRIDE; j += 2) {
+                if (deltas) {
+                    float dx = (float) (coords[i + j] - x1);
+                    float dy = (float) (coords[i + j + 1] - y1);
+                    out.putFloat(dx).putFloat(dy);
+                    pts[j] = x1 + dx;
+                    pts[j + 1] = y1 + dy;
+                } else {
+                    pts[j] = coords[i + j];
+                    pts[j + 1] = coords[i + j + 1];
+                    out.putDouble(pts[j]).putDouble(pts[j + 1]);
+                }
+            }
+
+            for (int j = 0; j < TileBuffer.STRIDE; j += 2) {
+                minX = Math.min(minX, pts[j]);
+                maxX = Math.max(maxX, pts[j]);
+                minY = Math.min(minY, pts[j + 1]);
+                maxY = Math.max(maxY, pts[j + 1]);
+            }
+        }
+
+        out.flip();
+        blockEntries.add(new long[]{position, size});
+        blockBounds.add(new double[]{minX, minY, maxX, maxY});
+        position += writeFully(out, position);
+
+        levelTiles += size;
+        levelBlocks++;
+        size = 0;
+    }
+
+    private void endLevel() throws IOException {
+        if (levelDepth < 0)
+            return;
+
+        flushBlock();
+        levelEntries.add(new long[]{levelDepth, levelTiles, levelBlocks});
+        levelDepth = -1;
+    }
+
+    private int writeFully(ByteBuffer buffer, long at) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining())
+            written += channel.write(buffer, at + written);
+        return written;
+    }
+
+    /**
+     * Writes the index and header. The file is only readable once this is done
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            endLevel();
+
+            long indexOffset = position;
+            ByteBuffer index = ByteBuffer.allocate(16 * levelEntries.size() + BLOCK_ENTRY_BYTES * blockEntries.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            int block = 0;
+            for (long[] level : levelEntries) {
+                index.putInt((int) level[0]).putLong(level[1]).putInt((int) level[2]);
+                for (int i = 0; i < level[2]; i++) {
+                    long[] entry = blockEntries.get(block);
+                    double[] bounds = blockBounds.get(block++);
+                    index.putLong(entry[0]).putLong(entry[1]);
+                    index.putDouble(bounds[0]).putDouble(bounds[1]).putDouble(bounds[2]).putDouble(bounds[3]);
+                }
+            }
+            index.flip();
+            writeFully(index, indexOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(deltas ? DELTAS : 0).putInt(BLOCK_TILES);
+            header.putLong(indexOffset).putInt(levelEntries.size()).putInt(0);
+            header.flip();
+            writeFully(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+}
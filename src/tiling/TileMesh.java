@@ -0,0 +1,262 @@
+package tiling;
+
+import java.util.Arrays;
+
+/**
+ * Indexed mesh of a level of the tiling. Points shared by several triangles are stored once in a vertex table, and
+ * every triangle refers to its points by index. Mirror halves that meet along their internal edge (see TileTypes) are
+ * also merged into whole kites, darts and rhombs. Halves whose mirror wasn't generated, such as ones cut off by a
+ * rectangle, are kept as triangles
+ * <p>
+ * Polygons are stored CSR style: polygon i has shape shapes[i] and its corners are
+ * vertices[polygonStart[i] .. polygonStart[i + 1] - 1], in order around it
+ */
+public class TileMesh {
+    // Polygon shapes. Halves keep the tile they are part of
+    public static final byte KITE = 0;
+    public static final byte DART = 1;
+    public static final byte HALF_KITE = 2;
+    public static final byte HALF_DART = 3;
+    public static final byte THIN_RHOMB = 4;
+    public static final byte THICK_RHOMB = 5;
+    public static final byte HALF_THIN_RHOMB = 6;
+    public static final byte HALF_THICK_RHOMB = 7;
+
+    // Shape of a whole tile and of a lone half, by triangle type
+    private static final byte[] WHOLE = {KITE, KITE, DART, DART, THIN_RHOMB, THICK_RHOMB};
+    private static final byte[] HALF = {HALF_KITE, HALF_KITE, HALF_DART, HALF_DART, HALF_THIN_RHOMB, HALF_THICK_RHOMB};
+
+    // Points closer than this fraction of the tiles' extent are treated as the same vertex
+    private static final double QUANTUM = 0x1p-30;
+
+    // x and y of every vertex, interleaved
+    private final double[] vertices;
+    private final int vertexCount;
+
+    // Three vertex indices per triangle, in the order p1, p2, p3, and each triangle's type
+    private final int[] triangles;
+    private final byte[] triangleTypes;
+
+    private final byte[] shapes;
+    private final int[] polygonStart;
+    private final int[] polygons;
+    private final int polygonCount;
+
+    // Index of the polygon each triangle ended up in
+    private final int[] polygonOf;
+
+    private TileMesh(double[] vertices, int vertexCount, int[] triangles, byte[] triangleTypes, byte[] shapes,
+                     int[] polygonStart, int[] polygons, int polygonCount, int[] polygonOf) {
+        this.vertices = vertices;
+        this.vertexCount = vertexCount;
+        this.triangles = triangles;
+        this.triangleTypes = triangleTypes;
+        this.shapes = shapes;
+        this.polygonStart = polygonStart;
+        this.polygons = polygons;
+        this.polygonCount = polygonCount;
+        this.polygonOf = polygonOf;
+    }
+
+    /**
+     * Builds the mesh of a buffer of triangles in time linear in their number. Points are snapped to a grid a
+     * billionth of the buffer's extent across and hashed, and shared edges are found by hashing pairs of vertex
+     * indices
+     *
+     * @param tiles the triangles, usually the last level of a generation
+     * @return the mesh of tiles
+     */
+    public static TileMesh build(TileBuffer tiles) {
+        int n = tiles.size();
+        double[] c = tiles.coords();
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double extent = 0;
+        for (int i = 0; i < n * TileBuffer.STRIDE; i += 2) {
+            minX = Math.min(minX, c[i]);
+            minY = Math.min(minY, c[i + 1]);
+        }
+        for (int i = 0; i < n * TileBuffer.STRIDE; i += 2)
+            extent = Math.max(extent, Math.max(c[i] - minX, c[i + 1] - minY));
+        double quantum = Math.max(extent, Double.MIN_NORMAL) * QUANTUM;
+
+        // Every interior point is shared by several triangles, so there are far fewer vertices than corners
+        LongIntMap vertexIds = new LongIntMap(n);
+        double[] vertices = new double[2 * Math.max(n, 4)];
+        int vertexCount = 0;
+
+        int[] triangles = new int[3 * n];
+        byte[] triangleTypes = new byte[n];
+        for (int i = 0; i < n; i++) {
+            triangleTypes[i] = tiles.type(i);
+            for (int point = 0; point < 3; point++) {
+                double x = c[i * TileBuffer.STRIDE + 2 * point];
+                double y = c[i * TileBuffer.STRIDE + 2 * point + 1];
+                long qx = Math.round((x - minX) / quantum);
+                long qy = Math.round((y - minY) / quantum);
+
+                int id = find(vertexIds, qx, qy);
+                if (id < 0) {
+                    id = vertexCount++;
+                    vertexIds.putIfAbsent(qx << 32 | qy, id);
+                    if (2 * vertexCount > vertices.length)
+                        vertices = Arrays.copyOf(vertices, 2 * vertices.length);
+                    vertices[2 * id] = x;
+                    vertices[2 * id + 1] = y;
+                }
+                triangles[3 * i + point] = id;
+            }
+        }
+
+        // Every half is hashed by its internal edge, and the second half of a pair to get there finds the first
+        LongIntMap halves = new LongIntMap(n);
+        int[] mirror = new int[n];
+        Arrays.fill(mirror, -1);
+        for (int i = 0; i < n; i++) {
+            int apex = TileTypes.apex(triangleTypes[i]);
+            long edge = edgeKey(triangles[3 * i + (apex + 1) % 3], triangles[3 * i + (apex + 2) % 3]);
+
+            int other = halves.putIfAbsent(edge, i);
+            if (other >= 0 && triangleTypes[other] == TileTypes.mirror(triangleTypes[i]) && mirror[other] < 0) {
+                mirror[other] = i;
+                mirror[i] = other;
+            }
+        }
+
+        byte[] shapes = new byte[n];
+        int[] polygonStart = new int[n + 1];
+        int[] polygons = new int[4 * n];
+        int[] polygonOf = new int[n];
+        int polygonCount = 0;
+        int corners = 0;
+
+        for (int i = 0; i < n; i++) {
+            int type = triangleTypes[i];
+            int other = mirror[i];
+
+            if (other < 0) {
+                shapes[polygonCount] = HALF[type];
+                for (int point = 0; point < 3; point++)
+                    polygons[corners++] = triangles[3 * i + point];
+            } else if (type < triangleTypes[other] || (type == triangleTypes[other] && i < other)) {
+                // The internal edge is a diagonal of the whole tile, so the corners go one end of it, this half's apex,
+                // the far end of the diagonal, then the mirror's apex
+                int apex = TileTypes.apex(type);
+                shapes[polygonCount] = WHOLE[type];
+                polygons[corners++] = triangles[3 * i + (apex + 1) % 3];
+                polygons[corners++] = triangles[3 * i + apex];
+                polygons[corners++] = triangles[3 * i + (apex + 2) % 3];
+                polygons[corners++] = triangles[3 * other + TileTypes.apex(triangleTypes[other])];
+                polygonOf[other] = polygonCount;
+            } else {
+                // Already added along with its first half
+                continue;
+            }
+
+            polygonOf[i] = polygonCount;
+            polygonStart[++polygonCount] = corners;
+        }
+
+        return new TileMesh(vertices, vertexCount, triangles, triangleTypes, shapes, polygonStart, polygons,
+                polygonCount, polygonOf);
+    }
+
+    /**
+     * Looks a snapped point up in its own cell and the cells around it, so two copies of a point that rounded to
+     * neighbouring cells still come out as one vertex
+     */
+    private static int find(LongIntMap vertexIds, long qx, long qy) {
+        int id = vertexIds.get(qx << 32 | qy);
+        if (id >= 0)
+            return id;
+
+        for (long dx = -1; dx <= 1; dx++)
+            for (long dy = -1; dy <= 1; dy++) {
+                id = vertexIds.get((qx + dx) << 32 | (qy + dy));
+                if (id >= 0)
+                    return id;
+            }
+
+        return -1;
+    }
+
+    /**
+     * @return a key that is the same for both directions of the edge between vertices a and b
+     */
+    static long edgeKey(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public double vertexX(int vertex) {
+        return vertices[2 * vertex];
+    }
+
+    public double vertexY(int vertex) {
+        return vertices[2 * vertex + 1];
+    }
+
+    public int triangleCount() {
+        return triangleTypes.length;
+    }
+
+    public byte triangleType(int triangle) {
+        return triangleTypes[triangle];
+    }
+
+    /**
+     * @param point 0, 1 or 2 for p1, p2 or p3
+     * @return the index of one of a triangle's vertices
+     */
+    public int triangleVertex(int triangle, int point) {
+        return triangles[3 * triangle + point];
+    }
+
+    public int polygonCount() {
+        return polygonCount;
+    }
+
+    public byte shape(int polygon) {
+        return shapes[polygon];
+    }
+
+    /**
+     * @return 4 for whole tiles, 3 for halves
+     */
+    public int cornerCount(int polygon) {
+        return polygonStart[polygon + 1] - polygonStart[polygon];
+    }
+
+    /**
+     * @return the index of a polygon's corner, going around it
+     */
+    public int corner(int polygon, int corner) {
+        return polygons[polygonStart[polygon] + corner];
+    }
+
+    /**
+     * @return the polygon a triangle was merged into
+     */
+    public int polygonOf(int triangle) {
+        return polygonOf[triangle];
+    }
+
+    /**
+     * @return whether a polygon is a kite or half of one
+     */
+    public boolean isKite(int polygon) {
+        return shapes[polygon] == KITE || shapes[polygon] == HALF_KITE;
+    }
+
+    /**
+     * @return whether a polygon is drawn in the primary color, like the halves it is made of (see TileTypes.isPrimary)
+     */
+    public boolean isPrimary(int polygon) {
+        byte shape = shapes[polygon];
+        return shape == KITE || shape == HALF_KITE || shape == THICK_RHOMB || shape == HALF_THICK_RHOMB;
+    }
+}
@@ -0,0 +1,291 @@
+package tiling;
+
+/**
+ * Draws buffers of Penrose triangles onto a TileSurface. Fills go down first, then the gray ghost lines of the levels
+ * above, then the tile lines, where the edge a half shares with its mirror is drawn in the fill color. Nothing here
+ * builds a scene graph, so it works for off-screen rasters, SVG files and JavaFX canvases alike
+ */
+public class TilePainter {
+    // Primary color, for kites and thick rhombs. Same as Color.FORESTGREEN
+    public static final int KITE_COLOR = 0xFF228B22;
+
+    // Secondary color, for darts and thin rhombs. Same as Color.LIGHTGREEN
+    public static final int DART_COLOR = 0xFF90EE90;
+
+    public static final int LINE_COLOR = 0xFF000000;
+
+    // Same as Color.GRAY
+    public static final int GHOST_COLOR = 0xFF808080;
+
+    // Flat color of a patch too small to draw tile by tile. The kite and dart colors mixed by how much area each covers
+    public static final int AGGREGATE_COLOR = blend(KITE_COLOR, DART_COLOR, TilingStatistics.kiteAreaShare());
+
+    private TilePainter() {
+    }
+
+    /**
+     * Paints a generation. When ghost is true every level above the last one is ghost drawn, like the random
+     * subsection mode does. Every point is drawn at (scale * (x - offsetX), scale * (y - offsetY))
+     *
+     * @param surface the surface that will be drawn on
+     * @param levels  the levels of the tiling. The last level holds the base tiles
+     * @param ghost   whether the levels above the last one are ghost drawn
+     * @param offsetX x coordinate that ends up at the left of the surface
+     * @param offsetY y coordinate that ends up at the top of the surface
+     * @param scale   (surface size) / (size of the drawn region)
+     */
+    public static void paint(TileSurface surface, TileBuffer[] levels, boolean ghost, double offsetX,
+                             double offsetY, double scale) {
+        paint(surface, levels, ghost, offsetX, offsetY, scale, null);
+    }
+
+    /**
+     * Same as paint(surface, levels, ghost, offsetX, offsetY, scale), but records the render time into stats. Also
+     * reported to Flight Recorder as a tiling.Render event when a recording has it enabled
+     *
+     * @param stats where the render time goes. Null records nothing
+     */
+    public static void paint(TileSurface surface, TileBuffer[] levels, boolean ghost, double offsetX,
+                             double offsetY, double scale, GenerationStats stats) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        long start = stats == null ? 0 : System.nanoTime();
+
+        TileBuffer tiles = levels[levels.length - 1];
+
+        // Fills go to the back so no fill covers a line drawn after it
+        paintFills(surface, tiles, offsetX, offsetY, scale);
+
+        if (ghost)
+            for (int level = 0; level < levels.length - 1; level++)
+                paintGhostLines(surface, levels[level], offsetX, offsetY, scale);
+
+        paintLines(surface, tiles, offsetX, offsetY, scale);
+
+        if (stats != null)
+            stats.recordRender(System.nanoTime() - start, tiles.size());
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tiles = tiles.size();
+            event.ghost = ghost;
+            event.surface = surface.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+
+    /**
+     * Paints the tiling below rootTri without ever holding it in memory. The tiling is walked once per layer (fills,
+     * ghost lines, tile lines) so the stacking order matches paint, trading extra subdivision work for memory that only
+     * grows with the depth. Arguments are the same as paint and TileWalker.walk
+     */
+    public static void paintStreaming(TileSurface surface, TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri,
+                                      boolean ghost, double offsetX, double offsetY, double scale) {
+        TileWalker.walk(rootTri, depth, setTri, false, (type, coords, offset, level, leaf) ->
+                paintFill(surface, type, coords, offset, offsetX, offsetY, scale));
+
+        if (ghost)
+            TileWalker.walk(rootTri, depth, setTri, true, (type, coords, offset, level, leaf) -> {
+                if (!leaf)
+                    paintGhostLines(surface, coords, offset, offsetX, offsetY, scale);
+            });
+
+        TileWalker.walk(rootTri, depth, setTri, false, (type, coords, offset, level, leaf) ->
+                paintLines(surface, type, coords, offset, offsetX, offsetY, scale));
+    }
+
+    /**
+     * Fills every triangle of tiles with the color of the tile it is half of
+     */
+    public static void paintFills(TileSurface surface, TileBuffer tiles, double offsetX, double offsetY,
+                                  double scale) {
+        paintFills(surface, tiles, 0, tiles.size(), offsetX, offsetY, scale);
+    }
+
+    /**
+     * Same as paintFills(surface, tiles, offsetX, offsetY, scale) for tiles from (inclusive) to to (exclusive), so a
+     * large buffer can be painted in batches
+     */
+    public static void paintFills(TileSurface surface, TileBuffer tiles, int from, int to, double offsetX,
+                                  double offsetY, double scale) {
+        for (int i = from; i < to; i++)
+            paintFill(surface, tiles.type(i), tiles.coords(), i * TileBuffer.STRIDE, offsetX, offsetY, scale);
+    }
+
+    /**
+     * Paints a mesh. Whole tiles are filled as one polygon and outlined in black, so they take about half the
+     * draw calls of their two halves. Halves left without their mirror are drawn like paint draws them
+     */
+    public static void paintMesh(TileSurface surface, TileMesh mesh, double offsetX, double offsetY, double scale) {
+        double[] xs = new double[4];
+        double[] ys = new double[4];
+
+        for (int polygon = 0; polygon < mesh.polygonCount(); polygon++) {
+            int count = mesh.cornerCount(polygon);
+            for (int corner = 0; corner < count; corner++) {
+                xs[corner] = scale * (mesh.vertexX(mesh.corner(polygon, corner)) - offsetX);
+                ys[corner] = scale * (mesh.vertexY(mesh.corner(polygon, corner)) - offsetY);
+            }
+            surface.fillPolygon(mesh.isPrimary(polygon) ? KITE_COLOR : DART_COLOR, xs, ys, count);
+        }
+
+        for (int polygon = 0; polygon < mesh.polygonCount(); polygon++) {
+            int count = mesh.cornerCount(polygon);
+            if (count == 3)
+                continue;
+
+            for (int corner = 0; corner < count; corner++) {
+                int from = mesh.corner(polygon, corner);
+                int to = mesh.corner(polygon, (corner + 1) % count);
+                surface.line(LINE_COLOR, scale * (mesh.vertexX(from) - offsetX), scale * (mesh.vertexY(from) - offsetY),
+                        scale * (mesh.vertexX(to) - offsetX), scale * (mesh.vertexY(to) - offsetY));
+            }
+        }
+
+        // Halves keep the rule that their shared edge is drawn in the fill color
+        double[] c = new double[TileBuffer.STRIDE];
+        for (int triangle = 0; triangle < mesh.triangleCount(); triangle++) {
+            if (mesh.cornerCount(mesh.polygonOf(triangle)) != 3)
+                continue;
+
+            for (int point = 0; point < 3; point++) {
+                c[2 * point] = mesh.vertexX(mesh.triangleVertex(triangle, point));
+                c[2 * point + 1] = mesh.vertexY(mesh.triangleVertex(triangle, point));
+            }
+            paintLines(surface, mesh.triangleType(triangle), c, 0, offsetX, offsetY, scale);
+        }
+    }
+
+    /**
+     * Fills every triangle of aggregates with AGGREGATE_COLOR and no lines. Meant for the triangles a level of detail
+     * build stopped subdividing early, and painted before paint so the base tiles' lines go on top
+     */
+    public static void paintAggregates(TileSurface surface, TileBuffer aggregates, double offsetX, double offsetY,
+                                       double scale) {
+        paintAggregates(surface, aggregates, 0, aggregates.size(), offsetX, offsetY, scale);
+    }
+
+    /**
+     * Same as paintAggregates(surface, aggregates, offsetX, offsetY, scale) for triangles from (inclusive) to to
+     * (exclusive)
+     */
+    public static void paintAggregates(TileSurface surface, TileBuffer aggregates, int from, int to, double offsetX,
+                                       double offsetY, double scale) {
+        double[] c = aggregates.coords();
+        for (int i = from; i < to; i++) {
+            int o = i * TileBuffer.STRIDE;
+            surface.fillTriangle(AGGREGATE_COLOR,
+                    scale * (c[o] - offsetX), scale * (c[o + 1] - offsetY),
+                    scale * (c[o + 2] - offsetX), scale * (c[o + 3] - offsetY),
+                    scale * (c[o + 4] - offsetX), scale * (c[o + 5] - offsetY));
+        }
+    }
+
+    /**
+     * Draws the 3 sides of every triangle of tiles in gray
+     */
+    public static void paintGhostLines(TileSurface surface, TileBuffer tiles, double offsetX, double offsetY,
+                                       double scale) {
+        paintGhostLines(surface, tiles, 0, tiles.size(), offsetX, offsetY, scale);
+    }
+
+    /**
+     * Same as paintGhostLines(surface, tiles, offsetX, offsetY, scale) for tiles from (inclusive) to to (exclusive)
+     */
+    public static void paintGhostLines(TileSurface surface, TileBuffer tiles, int from, int to, double offsetX,
+                                       double offsetY, double scale) {
+        for (int i = from; i < to; i++)
+            paintGhostLines(surface, tiles.coords(), i * TileBuffer.STRIDE, offsetX, offsetY, scale);
+    }
+
+    /**
+     * Draws the lines of every triangle of tiles
+     */
+    public static void paintLines(TileSurface surface, TileBuffer tiles, double offsetX, double offsetY,
+                                  double scale) {
+        paintLines(surface, tiles, 0, tiles.size(), offsetX, offsetY, scale);
+    }
+
+    /**
+     * Same as paintLines(surface, tiles, offsetX, offsetY, scale) for tiles from (inclusive) to to (exclusive)
+     */
+    public static void paintLines(TileSurface surface, TileBuffer tiles, int from, int to, double offsetX,
+                                  double offsetY, double scale) {
+        for (int i = from; i < to; i++)
+            paintLines(surface, tiles.type(i), tiles.coords(), i * TileBuffer.STRIDE, offsetX, offsetY, scale);
+    }
+
+    private static void paintFill(TileSurface surface, int type, double[] c, int o, double offsetX, double offsetY,
+                                  double scale) {
+        surface.fillTriangle(fillColor(type),
+                scale * (c[o] - offsetX), scale * (c[o + 1] - offsetY),
+                scale * (c[o + 2] - offsetX), scale * (c[o + 3] - offsetY),
+                scale * (c[o + 4] - offsetX), scale * (c[o + 5] - offsetY));
+    }
+
+    private static void paintGhostLines(TileSurface surface, double[] c, int o, double offsetX, double offsetY,
+                                        double scale) {
+        double x1 = scale * (c[o] - offsetX);
+        double y1 = scale * (c[o + 1] - offsetY);
+        double x2 = scale * (c[o + 2] - offsetX);
+        double y2 = scale * (c[o + 3] - offsetY);
+        double x3 = scale * (c[o + 4] - offsetX);
+        double y3 = scale * (c[o + 5] - offsetY);
+
+        surface.line(GHOST_COLOR, x1, y1, x2, y2);
+        surface.line(GHOST_COLOR, x1, y1, x3, y3);
+        surface.line(GHOST_COLOR, x2, y2, x3, y3);
+    }
+
+    /**
+     * The line shared with the other half of the tile is drawn in the fill color so the two halves join up, the other
+     * two are drawn in black on top of it
+     */
+    private static void paintLines(TileSurface surface, int type, double[] c, int o, double offsetX, double offsetY,
+                                   double scale) {
+        double x1 = scale * (c[o] - offsetX);
+        double y1 = scale * (c[o + 1] - offsetY);
+        double x2 = scale * (c[o + 2] - offsetX);
+        double y2 = scale * (c[o + 3] - offsetY);
+        double x3 = scale * (c[o + 4] - offsetX);
+        double y3 = scale * (c[o + 5] - offsetY);
+
+        // The shared edge is the one opposite the apex
+        switch (TileTypes.apex(type)) {
+            case 2 -> {
+                surface.line(fillColor(type), x1, y1, x2, y2);
+                surface.line(LINE_COLOR, x2, y2, x3, y3);
+                surface.line(LINE_COLOR, x1, y1, x3, y3);
+            }
+            case 1 -> {
+                surface.line(fillColor(type), x1, y1, x3, y3);
+                surface.line(LINE_COLOR, x2, y2, x3, y3);
+                surface.line(LINE_COLOR, x1, y1, x2, y2);
+            }
+            default -> {
+                surface.line(fillColor(type), x2, y2, x3, y3);
+                surface.line(LINE_COLOR, x1, y1, x2, y2);
+                surface.line(LINE_COLOR, x1, y1, x3, y3);
+            }
+        }
+    }
+
+    public static int fillColor(int type) {
+        return TileTypes.isPrimary(type) ? KITE_COLOR : DART_COLOR;
+    }
+
+    /**
+     * Mixes two opaque ARGB colors channel by channel
+     *
+     * @param share how much of the first color goes in, from 0 to 1
+     */
+    private static int blend(int first, int second, double share) {
+        int argb = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int channel = (int) Math.round(share * ((first >> shift) & 0xFF) +
+                    (1 - share) * ((second >> shift) & 0xFF));
+            argb |= channel << shift;
+        }
+        return argb;
+    }
+}
@@ -0,0 +1,23 @@
+package tiling;
+
+/**
+ * Something TilePainter can draw on. Colors are packed as 0xAARRGGBB so implementations don't need JavaFX or AWT
+ * color classes
+ */
+public interface TileSurface {
+    void fillTriangle(int argb, double x1, double y1, double x2, double y2, double x3, double y3);
+
+    void line(int argb, double x1, double y1, double x2, double y2);
+
+    /**
+     * Fills a convex polygon. By default it is split into a fan of triangles
+     *
+     * @param xs    x coordinates of the corners, in order around the polygon
+     * @param ys    y coordinates of the corners
+     * @param count number of corners used from xs and ys
+     */
+    default void fillPolygon(int argb, double[] xs, double[] ys, int count) {
+        for (int i = 2; i < count; i++)
+            fillTriangle(argb, xs[0], ys[0], xs[i - 1], ys[i - 1], xs[i], ys[i]);
+    }
+}
@@ -0,0 +1,54 @@
+package tiling;
+
+/**
+ * What every triangle type means to the code that draws, meshes and stores triangles. Every rule set has its own range
+ * of type ids, so a TileBuffer or a tile file says what its triangles are without the rules that made them: 0 to 3
+ * are the kite/dart halves TileBuffer.subdivide works on and 4 and 5 are the rhomb halves of SubstitutionRules.RHOMB
+ * <p>
+ * Every triangle is half of a tile, and the two halves of a tile meet along an internal edge. That edge is the one
+ * opposite the triangle's apex, so the apex is all the painters and TileMesh need to tell the edges apart
+ */
+public class TileTypes {
+    // Half of a thin rhomb, with its 36 degree angle at p1
+    public static final int THIN_RHOMB = 4;
+
+    // Half of a thick rhomb, with its 108 degree angle at p1
+    public static final int THICK_RHOMB = 5;
+
+    // Number of type ids in use
+    public static final int COUNT = 6;
+
+    // Point opposite the internal edge. Types 0 and 2 share p1-p2, types 1 and 3 share p1-p3 and rhombs share p2-p3
+    private static final int[] APEX = {2, 1, 2, 1, 0, 0};
+
+    // Type of the other half of the tile. Rhomb halves are mirror images of the same type
+    private static final int[] MIRROR = {1, 0, 3, 2, THIN_RHOMB, THICK_RHOMB};
+
+    private TileTypes() {
+    }
+
+    public static boolean isValid(int type) {
+        return type >= 0 && type < COUNT;
+    }
+
+    /**
+     * @return 0, 1 or 2 for the point of a triangle of this type that isn't on its internal edge
+     */
+    public static int apex(int type) {
+        return APEX[type];
+    }
+
+    /**
+     * @return the type of the half a triangle of this type shares its internal edge with
+     */
+    public static int mirror(int type) {
+        return MIRROR[type];
+    }
+
+    /**
+     * @return whether the type is half of a kite or a thick rhomb, the tiles drawn in the primary color
+     */
+    public static boolean isPrimary(int type) {
+        return type == 0 || type == 1 || type == THICK_RHOMB;
+    }
+}
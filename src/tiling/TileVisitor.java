@@ -0,0 +1,15 @@
+package tiling;
+
+/**
+ * Receives triangles one at a time from TileWalker as the tiling is built
+ */
+public interface TileVisitor {
+    /**
+     * @param type   the type of the triangle
+     * @param coords array holding the triangle's points. Only valid during the call, copy anything that is kept
+     * @param offset offset of the triangle's p1 x coordinate in coords
+     * @param depth  how many generations below the root the triangle is
+     * @param leaf   true for the base tiles, false for interior (ghost drawn) triangles
+     */
+    void visit(int type, double[] coords, int offset, int depth, boolean leaf);
+}
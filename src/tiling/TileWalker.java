@@ -0,0 +1,68 @@
+package tiling;
+
+/**
+ * Builds the tiling depth-first and hands every triangle to a TileVisitor as soon as it is made, instead of keeping
+ * whole levels like TileBuffer.buildLevels. Only the children of the triangles on the current path are kept, so memory
+ * stays proportional to the depth no matter how many tiles are produced
+ */
+public class TileWalker {
+    private TileWalker() {
+    }
+
+    /**
+     * Walks the tiling below every triangle of rootTri. Triangles are visited in pre-order, so a parent is always
+     * visited before its children, and the base tiles come out in the same order as the last level of
+     * TileBuffer.buildLevels
+     *
+     * @param rootTri      the triangles which the function will build tiling in
+     * @param depth        how many generations this method will go down
+     * @param setTri       filter that lets this method work with and without a rectangle constraint. Null keeps
+     *                     everything
+     * @param emitInterior whether triangles above depth (the ones that get ghost drawn) are visited too
+     * @param visitor      receives the triangles
+     */
+    public static void walk(TileBuffer rootTri, int depth, TileBuffer.CheckTile setTri, boolean emitInterior,
+                            TileVisitor visitor) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        // Slot level holds the (at most 3) kept children of the triangle being expanded at that level
+        byte[] types = new byte[3 * (depth + 1)];
+        double[] coords = new double[3 * (depth + 1) * TileBuffer.STRIDE];
+        int[] count = new int[depth + 1];
+        int[] next = new int[depth + 1];
+
+        for (int root = 0; root < rootTri.size(); root++) {
+            types[0] = rootTri.type(root);
+            System.arraycopy(rootTri.coords(), root * TileBuffer.STRIDE, coords, 0, TileBuffer.STRIDE);
+            count[0] = 1;
+            next[0] = 0;
+
+            int level = 0;
+            while (level >= 0) {
+                // Every triangle at this level has been expanded, go back up
+                if (next[level] == count[level]) {
+                    level--;
+                    continue;
+                }
+
+                int index = 3 * level + next[level]++;
+                int offset = index * TileBuffer.STRIDE;
+
+                if (level == depth) {
+                    visitor.visit(types[index], coords, offset, level, true);
+                    continue;
+                }
+
+                if (emitInterior)
+                    visitor.visit(types[index], coords, offset, level, false);
+
+                int first = 3 * (level + 1);
+                count[level + 1] = TileBuffer.subdivide(types[index], coords, offset, types, coords, first, setTri)
+                        - first;
+                next[level + 1] = 0;
+                level++;
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package tiling;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Figures about a tiling worked out from the substitution matrix instead of by building it. Type counts at a depth
+ * are a column of the matrix raised to that depth, which is found by repeated squaring, so even very large depths
+ * only take a few dozen matrix products
+ */
+public class TilingStatistics {
+    // SUBSTITUTION[child][parent] is how many children of type child a parent of type parent has. Follows the
+    // partition rules in TileBuffer.subdivide
+    private static final long[][] SUBSTITUTION = {
+            {1, 1, 0, 1},
+            {1, 1, 1, 0},
+            {1, 0, 1, 0},
+            {0, 1, 0, 1}
+    };
+
+    // A kite half (type 0 or 1) has PHI times the area of a dart half (type 2 or 3) of the same generation
+    private static final double KITE_TO_DART_AREA = KDPenroseTri.PHI;
+
+    // Memory one triangle takes up in a TileBuffer. One byte for the type and 6 doubles for the points
+    private static final long BYTES_PER_TILE = 1 + TileBuffer.STRIDE * Double.BYTES;
+
+    // Memory one triangle takes up in an ExactTileBuffer. One byte for the type and 12 longs for the points
+    private static final long BYTES_PER_EXACT_TILE = 1 + ExactTileBuffer.STRIDE * Long.BYTES;
+
+    // Depth of the generation timed to estimate how long real generations take
+    private static final int CALIBRATION_DEPTH = 14;
+
+    // Untimed generations run first so the timed ones see JIT compiled code, not the interpreter
+    private static final int CALIBRATION_WARMUPS = 5;
+
+    // Timed generations. The fastest one is kept, as the others only add noise from GC and other threads
+    private static final int CALIBRATION_RUNS = 3;
+
+    private static volatile double nanosPerTile = -1;
+
+    private TilingStatistics() {
+    }
+
+    /**
+     * Counts the base tiles of each type below a triangle
+     *
+     * @param rootType the type of the triangle
+     * @param depth    how many generations down the base tiles are
+     * @return how many base tiles there are of types 0, 1, 2 and 3
+     */
+    public static BigInteger[] typeCounts(int rootType, int depth) {
+        if (rootType < 0 || rootType > 3)
+            throw new IllegalArgumentException("Invalid type");
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        BigInteger[][] power = power(toBig(SUBSTITUTION), depth);
+
+        BigInteger[] counts = new BigInteger[4];
+        for (int type = 0; type < 4; type++)
+            counts[type] = power[type][rootType];
+        return counts;
+    }
+
+    /**
+     * Counts every triangle from a root down to a depth, including the root and every interior (ghost drawn) triangle.
+     * Uses the block matrix [[M, I], [0, I]], whose power holds M^depth next to I + M + ... + M^(depth - 1)
+     *
+     * @param rootType the type of the root triangle
+     * @param depth    how many generations down the base tiles are
+     * @return how many triangles every level from 0 to depth holds together
+     */
+    public static BigInteger nodeCount(int rootType, int depth) {
+        if (rootType < 0 || rootType > 3)
+            throw new IllegalArgumentException("Invalid type");
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        BigInteger[][] block = new BigInteger[8][8];
+        for (int row = 0; row < 8; row++)
+            for (int col = 0; col < 8; col++)
+                block[row][col] = BigInteger.ZERO;
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++)
+                block[row][col] = BigInteger.valueOf(SUBSTITUTION[row][col]);
+            block[row][row + 4] = BigInteger.ONE;
+            block[row + 4][row + 4] = BigInteger.ONE;
+        }
+
+        BigInteger[][] power = power(block, depth);
+
+        // The top half of column rootType + 4 sums the levels above depth, the top half of column rootType is depth
+        BigInteger count = BigInteger.ZERO;
+        for (int type = 0; type < 4; type++)
+            count = count.add(power[type][rootType]).add(power[type][rootType + 4]);
+        return count;
+    }
+
+    public static BigInteger leafCount(int rootType, int depth) {
+        return sum(typeCounts(rootType, depth));
+    }
+
+    /**
+     * @return (kite halves) / (dart halves) among the base tiles. Tends to PHI as depth grows
+     */
+    public static double kiteDartRatio(int rootType, int depth) {
+        BigInteger[] counts = typeCounts(rootType, depth);
+        BigInteger kites = counts[0].add(counts[1]);
+        BigInteger darts = counts[2].add(counts[3]);
+
+        if (darts.signum() == 0)
+            return Double.POSITIVE_INFINITY;
+        return new BigDecimal(kites).divide(new BigDecimal(darts), MathContext.DECIMAL64).doubleValue();
+    }
+
+    /**
+     * Works out the area of one base tile of each kind. The base tiles always cover the root exactly, and a kite half
+     * has PHI times the area of a dart half
+     *
+     * @param rootType the type of the root triangle
+     * @param rootArea the area of the root triangle
+     * @param depth    how many generations down the base tiles are
+     * @return {area of a kite half, area of a dart half}
+     */
+    public static double[] tileAreas(int rootType, double rootArea, int depth) {
+        BigInteger[] counts = typeCounts(rootType, depth);
+        double kites = counts[0].add(counts[1]).doubleValue();
+        double darts = counts[2].add(counts[3]).doubleValue();
+
+        double dartArea = rootArea / (kites * KITE_TO_DART_AREA + darts);
+        return new double[]{dartArea * KITE_TO_DART_AREA, dartArea};
+    }
+
+    /**
+     * Share of a large patch's area that is covered by kites. Kites outnumber darts by PHI to 1 in the limit and each
+     * has PHI times the area, no matter the root
+     *
+     * @return the kite area over the total area, about 0.724
+     */
+    public static double kiteAreaShare() {
+        double kiteArea = KDPenroseTri.PHI * KITE_TO_DART_AREA;
+        return kiteArea / (kiteArea + 1);
+    }
+
+    /**
+     * Counts the base tiles that overlap a square exactly, as the rectangle-filtered generation would produce them.
+     * Only triangles crossing the square's boundary are subdivided. Ones inside it add their whole subtree's count
+     * from the substitution matrix and ones outside it are dropped. Like TileBuffer.buildLevels, the roots are kept
+     * even if they don't overlap the square
+     *
+     * @param rootTri    the triangles which the tiling is built in
+     * @param depth      how many generations down the base tiles are
+     * @param rectX      the left x coordinate of the square
+     * @param rectY      the top y coordinate of the square
+     * @param rectLength the width and height of the square
+     * @return {base tiles, every triangle kept on the way down including the roots}
+     */
+    public static BigInteger[] countInRectangle(TileBuffer rootTri, int depth, int rectX, int rectY, int rectLength) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth less than 0");
+
+        // Leaves and nodes below a triangle of each type for every remaining depth
+        BigInteger[][] leaves = new BigInteger[depth + 1][];
+        BigInteger[][] nodes = new BigInteger[depth + 1][4];
+        for (int remaining = 0; remaining <= depth; remaining++) {
+            leaves[remaining] = new BigInteger[4];
+            for (int type = 0; type < 4; type++) {
+                leaves[remaining][type] = leafCount(type, remaining);
+                nodes[remaining][type] = nodeCount(type, remaining);
+            }
+        }
+
+        BigInteger[] total = {BigInteger.ZERO, BigInteger.ZERO};
+
+        // Only the triangles on the boundary are ever kept, and there are few of them. The roots are kept as given,
+        // like buildLevels does, and the filter only applies from level 1 on
+        TileBuffer boundary = new TileBuffer(rootTri.size());
+        boundary.addAll(rootTri);
+
+        for (int level = 0; ; level++) {
+            TileBuffer crossing = new TileBuffer();
+            double[] pts = boundary.coords();
+
+            for (int i = 0; i < boundary.size(); i++) {
+                int o = i * TileBuffer.STRIDE;
+                int type = boundary.type(i);
+
+                if (level == depth || KDPenroseTri.inside(pts, o, rectX, rectY, rectLength)) {
+                    total[0] = total[0].add(leaves[depth - level][type]);
+                    total[1] = total[1].add(nodes[depth - level][type]);
+                } else {
+                    total[1] = total[1].add(BigInteger.ONE);
+                    crossing.add(type, pts[o], pts[o + 1], pts[o + 2], pts[o + 3], pts[o + 4], pts[o + 5]);
+                }
+            }
+
+            if (level == depth)
+                return total;
+
+            boundary = new TileBuffer(3 * crossing.size());
+            crossing.subdivide((p, offset) -> KDPenroseTri.overlapping(p, offset, rectX, rectY, rectLength),
+                    boundary);
+        }
+    }
+
+    /**
+     * Estimates what building every level of a tiling would cost before it is built
+     *
+     * @param nodes how many triangles would be built in total, for example from nodeCount or countInRectangle
+     * @return the estimate
+     */
+    public static Estimate estimate(BigInteger nodes) {
+        double count = nodes.doubleValue();
+        return new Estimate(count * BYTES_PER_TILE, count);
+    }
+
+    /**
+     * Estimates what building every level of a RefinableTiling would cost before it is built. Every level is kept
+     * with exact coordinates, and the base tiles also get one screen coordinate copy
+     *
+     * @param nodes       how many triangles would be built in total, for example from nodeCount
+     * @param screenTiles how many triangles the screen copy holds, for example from leafCount
+     * @return the estimate
+     */
+    public static Estimate estimate(BigInteger nodes, BigInteger screenTiles) {
+        double count = nodes.doubleValue();
+        double bytes = count * BYTES_PER_EXACT_TILE + screenTiles.doubleValue() * BYTES_PER_TILE;
+        return new Estimate(bytes, count);
+    }
+
+    /**
+     * Times generations the first time it is called to find how long building a triangle takes on this machine. Only
+     * getSeconds needs it, so callers that just check memory never pay for it
+     */
+    private static double nanosPerTile() {
+        if (nanosPerTile < 0) {
+            TileBuffer rootTri = TileBuffer.rootTri(1);
+            for (int i = 0; i < CALIBRATION_WARMUPS; i++)
+                TileBuffer.buildLevels(rootTri, CALIBRATION_DEPTH, null);
+
+            long fastest = Long.MAX_VALUE;
+            for (int i = 0; i < CALIBRATION_RUNS; i++) {
+                long start = System.nanoTime();
+                TileBuffer.buildLevels(rootTri, CALIBRATION_DEPTH, null);
+                fastest = Math.min(fastest, System.nanoTime() - start);
+            }
+
+            nanosPerTile = (double) fastest / nodeCount(2, CALIBRATION_DEPTH).doubleValue();
+        }
+
+        return nanosPerTile;
+    }
+
+    /**
+     * What a generation is expected to cost
+     */
+    public static class Estimate {
+        private final double bytes;
+        private final double nodes;
+
+        private Estimate(double bytes, double nodes) {
+            this.bytes = bytes;
+            this.nodes = nodes;
+        }
+
+        public double getBytes() {
+            return bytes;
+        }
+
+        /**
+         * The first call in a run times a few generations to calibrate, which takes a moment
+         */
+        public double getSeconds() {
+            return nodes * nanosPerTile() / 1e9;
+        }
+
+        /**
+         * @param maxBytes the most memory the caller is willing to use
+         * @return true if the generation is expected to fit
+         */
+        public boolean fits(long maxBytes) {
+            return bytes <= maxBytes;
+        }
+    }
+
+    private static BigInteger sum(BigInteger[] values) {
+        BigInteger sum = BigInteger.ZERO;
+        for (BigInteger each : values)
+            sum = sum.add(each);
+        return sum;
+    }
+
+    private static BigInteger[][] toBig(long[][] matrix) {
+        BigInteger[][] big = new BigInteger[matrix.length][matrix.length];
+        for (int row = 0; row < matrix.length; row++)
+            for (int col = 0; col < matrix.length; col++)
+                big[row][col] = BigInteger.valueOf(matrix[row][col]);
+        return big;
+    }
+
+    /**
+     * Raises a square matrix to a power by repeated squaring
+     */
+    private static BigInteger[][] power(BigInteger[][] matrix, int exponent) {
+        int n = matrix.length;
+        BigInteger[][] result = new BigInteger[n][n];
+        for (int row = 0; row < n; row++)
+            for (int col = 0; col < n; col++)
+                result[row][col] = row == col ? BigInteger.ONE : BigInteger.ZERO;
+
+        BigInteger[][] base = matrix;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1)
+                result = multiply(result, base);
+            exponent >>= 1;
+            if (exponent > 0)
+                base = multiply(base, base);
+        }
+
+        return result;
+    }
+
+    private static BigInteger[][] multiply(BigInteger[][] a, BigInteger[][] b) {
+        int n = a.length;
+        BigInteger[][] product = new BigInteger[n][n];
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int k = 0; k < n; k++)
+                    if (a[row][k].signum() != 0 && b[k][col].signum() != 0)
+                        sum = sum.add(a[row][k].multiply(b[k][col]));
+                product[row][col] = sum;
+            }
+        }
+
+        return product;
+    }
+}
@@ -0,0 +1,74 @@
+package tiling.ui;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import tiling.TilePainter;
+import tiling.TileSurface;
+
+/**
+ * TileSurface that draws onto a JavaFX Canvas. The whole tiling becomes one node instead of four per triangle
+ */
+public class FxTileSurface implements TileSurface {
+    // Width of lines drawn
+    private static final int LINE_WIDTH = 1;
+
+    private final GraphicsContext graphics;
+
+    // Reused for every triangle so drawing doesn't allocate per triangle
+    private final double[] xs = new double[3];
+    private final double[] ys = new double[3];
+
+    private int fillArgb;
+    private int strokeArgb;
+
+    public FxTileSurface(GraphicsContext graphics) {
+        this.graphics = graphics;
+        graphics.setLineWidth(LINE_WIDTH);
+
+        // Starts from a known state so the cached colors are always right
+        graphics.setFill(Color.BLACK);
+        graphics.setStroke(Color.BLACK);
+        fillArgb = TilePainter.LINE_COLOR;
+        strokeArgb = TilePainter.LINE_COLOR;
+    }
+
+    @Override
+    public void fillTriangle(int argb, double x1, double y1, double x2, double y2, double x3, double y3) {
+        if (argb != fillArgb) {
+            graphics.setFill(toColor(argb));
+            fillArgb = argb;
+        }
+
+        xs[0] = x1;
+        xs[1] = x2;
+        xs[2] = x3;
+        ys[0] = y1;
+        ys[1] = y2;
+        ys[2] = y3;
+        graphics.fillPolygon(xs, ys, 3);
+    }
+
+    @Override
+    public void fillPolygon(int argb, double[] xs, double[] ys, int count) {
+        if (argb != fillArgb) {
+            graphics.setFill(toColor(argb));
+            fillArgb = argb;
+        }
+
+        graphics.fillPolygon(xs, ys, count);
+    }
+
+    @Override
+    public void line(int argb, double x1, double y1, double x2, double y2) {
+        if (argb != strokeArgb) {
+            graphics.setStroke(toColor(argb));
+            strokeArgb = argb;
+        }
+
+        graphics.strokeLine(x1, y1, x2, y2);
+    }
+
+    private static Color toColor(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, (argb >>> 24) / 255.);
+    }
+}
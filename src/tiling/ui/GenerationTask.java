@@ -0,0 +1,182 @@
+package tiling.ui;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.PixelFormat;
+import tiling.RasterTileSurface;
+import tiling.TileBuffer;
+import tiling.TilePainter;
+
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds and paints a generation off the FX application thread. Tiles are painted onto an off-screen raster in
+ * batches, and the raster is copied onto the canvas as batches finish, so the window keeps responding and the tiling
+ * fills in as it goes. Cancelling stops the task at the next batch. The message ends up as a summary with the time
+ * taken
+ */
+class GenerationTask extends Task<Void> {
+    interface Work {
+        /**
+         * Builds and paints the generation with the task's paint method
+         *
+         * @return a summary of what was generated, such as the number of tiles
+         */
+        String run(GenerationTask task);
+    }
+
+    // Triangles painted between checks for cancellation
+    private static final int BATCH = 1 << 14;
+
+    // Shortest time between two copies of the raster onto the canvas
+    private static final long PUBLISH_NANOS = 100_000_000;
+
+    private final Canvas canvas;
+    private final int width;
+    private final int height;
+    private final Work work;
+
+    private final RasterTileSurface surface;
+
+    // Latest copy of the raster waiting for the FX application thread. Only the newest one is ever drawn
+    private final AtomicReference<int[]> pending = new AtomicReference<>();
+
+    private long start;
+    private long lastPublish;
+
+    /**
+     * @param canvas the canvas the generation is copied onto. Has to be created on the FX application thread
+     * @param work   what the task builds and paints
+     */
+    GenerationTask(Canvas canvas, Work work) {
+        this.canvas = canvas;
+        this.work = work;
+        width = (int) canvas.getWidth();
+        height = (int) canvas.getHeight();
+        surface = new RasterTileSurface(width, height, 0);
+    }
+
+    @Override
+    protected Void call() {
+        start = System.nanoTime();
+        String summary = work.run(this);
+
+        updateProgress(1, 1);
+        updateMessage(String.format("%s in %d ms", summary, (System.nanoTime() - start) / 1_000_000));
+        return null;
+    }
+
+    /**
+     * Shows what the task is doing in its message. Progress is left unknown until painting starts
+     */
+    void status(String message) {
+        checkCancelled();
+        updateProgress(-1, 1);
+        updateMessage(message);
+    }
+
+    /**
+     * Paints a generation the same way TilePainter.paint does, after clearing whatever was painted before. Triangles
+     * a level of detail build stopped early go underneath everything
+     *
+     * @param levels     the levels of the tiling. The last level holds the base tiles
+     * @param aggregates triangles drawn as flat patches. Null if there are none
+     * @param ghost      whether the levels above the last one are ghost drawn
+     * @param offsetX    x coordinate that ends up at the left of the canvas
+     * @param offsetY    y coordinate that ends up at the top of the canvas
+     * @param scale      (canvas size) / (size of the drawn region)
+     * @throws CancellationException if the task is cancelled part way through
+     */
+    void paint(TileBuffer[] levels, TileBuffer aggregates, boolean ghost, double offsetX, double offsetY,
+               double scale) {
+        TileBuffer tiles = levels[levels.length - 1];
+
+        long total = 2L * tiles.size() + (aggregates == null ? 0 : aggregates.size());
+        if (ghost)
+            for (int level = 0; level < levels.length - 1; level++)
+                total += levels[level].size();
+
+        checkCancelled();
+        updateMessage("Painting " + tiles.size() + " tiles");
+        surface.clear();
+        long done = 0;
+
+        if (aggregates != null)
+            for (int from = 0; from < aggregates.size(); from += BATCH) {
+                int to = Math.min(from + BATCH, aggregates.size());
+                TilePainter.paintAggregates(surface, aggregates, from, to, offsetX, offsetY, scale);
+                done = batchDone(done + to - from, total);
+            }
+
+        for (int from = 0; from < tiles.size(); from += BATCH) {
+            int to = Math.min(from + BATCH, tiles.size());
+            TilePainter.paintFills(surface, tiles, from, to, offsetX, offsetY, scale);
+            done = batchDone(done + to - from, total);
+        }
+
+        if (ghost)
+            for (int level = 0; level < levels.length - 1; level++)
+                for (int from = 0; from < levels[level].size(); from += BATCH) {
+                    int to = Math.min(from + BATCH, levels[level].size());
+                    TilePainter.paintGhostLines(surface, levels[level], from, to, offsetX, offsetY, scale);
+                    done = batchDone(done + to - from, total);
+                }
+
+        for (int from = 0; from < tiles.size(); from += BATCH) {
+            int to = Math.min(from + BATCH, tiles.size());
+            TilePainter.paintLines(surface, tiles, from, to, offsetX, offsetY, scale);
+            done = batchDone(done + to - from, total);
+        }
+
+        publish(true);
+    }
+
+    /**
+     * Reports progress after a batch and copies the raster onto the canvas if it hasn't been for a while
+     *
+     * @return done, so calls can be chained
+     */
+    private long batchDone(long done, long total) {
+        checkCancelled();
+        updateProgress(done, total);
+        publish(false);
+        return done;
+    }
+
+    /**
+     * Copies the raster and hands the copy to the FX application thread. A copy that is still waiting there is
+     * replaced rather than queued behind
+     *
+     * @param force whether to copy even if the last copy was recent
+     */
+    private void publish(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastPublish < PUBLISH_NANOS)
+            return;
+        lastPublish = now;
+
+        int[] pixels = ((DataBufferInt) surface.getImage().getRaster().getDataBuffer()).getData().clone();
+        if (pending.getAndSet(pixels) != null)
+            return;
+
+        Platform.runLater(() -> {
+            int[] latest = pending.getAndSet(null);
+
+            // A newer generation may have started since this was queued
+            if (latest != null && !isCancelled())
+                canvas.getGraphicsContext2D().getPixelWriter().setPixels(0, 0, width, height,
+                        PixelFormat.getIntArgbInstance(), latest, 0, width);
+        });
+    }
+
+    /**
+     * Stops the work by unwinding out of it. The task is already marked cancelled, so the exception goes nowhere
+     */
+    private void checkCancelled() {
+        if (isCancelled())
+            throw new CancellationException();
+    }
+}
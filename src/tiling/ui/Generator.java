@@ -0,0 +1,355 @@
+package tiling.ui;
+
+import javafx.application.Application;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+import tiling.ChunkCache;
+import tiling.ExactTileBuffer;
+import tiling.GenerationStats;
+import tiling.PenroseTiling;
+import tiling.RefinableTiling;
+import tiling.Subsection;
+import tiling.SubstitutionRules;
+import tiling.TileBuffer;
+import tiling.TilingStatistics;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Driver class. Theoretically set up so that it can easily run different aperiodic tilings
+ */
+public class Generator extends Application {
+    // Base length of rootTri. Also is the length of the scene
+    private static final int BASE_LENGTH = PenroseTiling.BASE_LENGTH;
+
+    // Makes it to where the bounding box won't be at one of the extremes. Also controls minimum width
+    private static final int BUFFER = 60;
+
+    // Triangles smaller than this many pixels across stop subdividing when level of detail is selected
+    private static final double LOD_PIXELS = 2;
+
+    // Number of threads used to build the tiling. Set with -Dgenerator.threads=N to measure scaling
+    private static final int THREADS = Integer.getInteger("generator.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    // Prints per depth counters and timings of every random subsection. Set with -Dgenerator.stats=true
+    private static final boolean STATS = Boolean.getBoolean("generator.stats");
+
+    private final PenroseTiling tiling = new PenroseTiling(THREADS);
+
+    // Runs generations off the FX application thread, one at a time
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "generation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The generation running or last run. Cancelled when a newer one starts
+    private GenerationTask current;
+
+    // Base length of the triangle the viewer pans over. At the viewer's starting zoom a world length is a pixel, so
+    // this is far past anything that would be panned across
+    private static final int WORLD_LENGTH = 1 << 26;
+
+    // Chunks are CHUNK_PIXELS wide on screen with tiles about TILE_PIXELS wide
+    private static final int CHUNK_PIXELS = 256;
+    private static final double TILE_PIXELS = 24;
+
+    // Most memory the viewer's chunks may use
+    private static final long CHUNK_CACHE_BYTES = 128L << 20;
+
+    // Zoom levels the viewer can move between. Chunk indexes stay in range for the whole world at these
+    private static final int MIN_VIEWER_ZOOM = -8;
+    private static final int MAX_VIEWER_ZOOM = 8;
+
+    private final ChunkCache chunks = new ChunkCache(TileBuffer.rootTri(WORLD_LENGTH), CHUNK_PIXELS, TILE_PIXELS,
+            CHUNK_CACHE_BYTES, THREADS);
+
+    // Made the first time the viewer is opened
+    private TilingViewer viewer;
+
+    // The whole triangle shown by the depth box. Kept between entries so changing the depth only builds new levels
+    private final RefinableTiling refinable = new RefinableTiling(BASE_LENGTH);
+
+    @Override
+    public void start(Stage window) {
+        Pane center = new Pane();
+
+        // Every generation is painted onto one canvas instead of adding nodes per triangle to center
+        Canvas canvas = new Canvas(BASE_LENGTH, BASE_LENGTH);
+        center.getChildren().add(canvas);
+
+        Label depthLabel = new Label("Enter the depth of the algorithm");
+        depthLabel.setBackground(Background.fill(Color.WHITESMOKE));
+
+        TextField depthTextBox = new TextField();
+
+        Label errorLabel = new Label("Invalid input. Only input an integer 0+");
+        errorLabel.setBackground(Background.fill(Color.WHITESMOKE));
+        errorLabel.setVisible(false);
+
+        // Which substitution rules the depth box and random subsections follow
+        ChoiceBox<SubstitutionRules> rulesSelection = new ChoiceBox<>();
+        rulesSelection.getItems().addAll(SubstitutionRules.KITE_DART, SubstitutionRules.RHOMB);
+        rulesSelection.setValue(SubstitutionRules.KITE_DART);
+
+        CheckBox lodSelection = new CheckBox("Level of detail?");
+        lodSelection.setBackground(Background.fill(Color.WHITESMOKE));
+
+        // Shows how far along the running generation is, and how long the last one took
+        ProgressBar progressBar = new ProgressBar(0);
+
+        Label statusLabel = new Label();
+        statusLabel.setBackground(Background.fill(Color.WHITESMOKE));
+
+        depthTextBox.setOnAction(event -> {
+            String textInput = depthTextBox.getText();
+
+            depthTextBox.clear();
+
+            int depth;
+            try {
+                depth = Integer.parseInt(textInput);
+                if (depth > ExactTileBuffer.MAX_DEPTH)
+                    throw new IllegalArgumentException("Depth too large");
+
+                errorLabel.setVisible(false);
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+                errorLabel.setVisible(true);
+
+                return;
+            }
+
+            boolean lod = lodSelection.isSelected();
+            SubstitutionRules rules = rulesSelection.getValue();
+
+            // Clears the previous generation
+            center.getChildren().setAll(canvas);
+            canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+            run(new GenerationTask(canvas, task -> {
+                // Root triangle is always the same for the same rules
+                TileBuffer rootTri = rules.rootTri(BASE_LENGTH);
+
+                if (lod) {
+                    // Subdivision stops at the size of a pixel, so the work is bounded no matter the depth and the
+                    // triangles left are still large enough for doubles
+                    task.status("Building depth " + depth);
+                    TileBuffer aggregates = new TileBuffer();
+                    TileBuffer[] levels = tiling.buildPenroseTiles(rules, rootTri, depth, null, 1, LOD_PIXELS,
+                            aggregates);
+
+                    task.paint(new TileBuffer[]{levels[depth]}, aggregates, false, 0, 0, 1);
+                    return "Depth " + depth + ": " + levels[depth].size() + " tiles and " + aggregates.size() +
+                            " aggregates";
+                }
+
+                // Exact tiles only follow the kite/dart rules, so other rules are built in doubles
+                if (rules != SubstitutionRules.KITE_DART) {
+                    TilingStatistics.Estimate estimate = TilingStatistics.estimate(rules.nodeCount(depth));
+                    if (!estimate.fits(Runtime.getRuntime().maxMemory()))
+                        throw new IllegalArgumentException("Depth too large for the available memory");
+
+                    // The time is calibrated on the kite/dart kernel, so it is only a rough guide for other rules
+                    task.status(String.format("Building depth %d, about %.1f s", depth, estimate.getSeconds()));
+                    TileBuffer[] levels = tiling.buildPenroseTiles(rules, rootTri, depth, null, null, null);
+
+                    task.paint(new TileBuffer[]{levels[depth]}, null, false, 0, 0, 1);
+                    return "Depth " + depth + ": " + levels[depth].size() + " tiles";
+                }
+
+                // Checks the levels held, plus any new ones and one screen copy of the base tiles, fit in memory
+                // before spending any time on them. Going back up keeps the deeper levels, so coming back down is free
+                int type = rootTri.type(0);
+                int held = Math.max(refinable.getBuiltDepth(), depth);
+                if (!TilingStatistics.estimate(TilingStatistics.nodeCount(type, held),
+                        TilingStatistics.leafCount(type, depth)).fits(Runtime.getRuntime().maxMemory())) {
+                    if (depth >= refinable.getBuiltDepth())
+                        throw new IllegalArgumentException("Depth too large for the available memory");
+
+                    // Only lets go of the deeper levels when holding on to them leaves no room
+                    refinable.trim(depth);
+                }
+
+                // Only the levels below the deepest one entered so far are built, and each is painted as soon as it
+                // is so the tiling refines on screen. The tiles are built exactly, since past 12 doubles start to run
+                // into floating point errors, and only turned into screen coordinates to be drawn. Cancelling stops
+                // the build part way through a level, and every level finished before it is kept
+                for (int next = Math.min(refinable.getBuiltDepth() + 1, depth); next <= depth; next++) {
+                    task.status("Building depth " + next);
+                    TileBuffer leaves = refinable.setDepth(next, task::isCancelled);
+                    if (leaves == null)
+                        throw new CancellationException();
+
+                    task.paint(new TileBuffer[]{leaves}, null, false, 0, 0, 1);
+                }
+
+                return "Depth " + depth + ": " + refinable.getLeaves().size() + " tiles";
+            }), progressBar, statusLabel, errorLabel);
+        });
+
+        HBox depthInputBox = new HBox(depthLabel, depthTextBox, rulesSelection, lodSelection, errorLabel);
+        depthInputBox.setSpacing(10);
+        depthInputBox.setAlignment(Pos.BOTTOM_LEFT);
+
+        Button randomSection = new Button("Want to find a random subsection?");
+
+        CheckBox fullscreenSelection = new CheckBox("Fullscreen?");
+        fullscreenSelection.setBackground(Background.fill(Color.WHITESMOKE));
+
+        randomSection.setOnAction(event -> {
+            // Shown with the result so the same subsection can be made again with BatchGenerator
+            long seed = new Random().nextLong();
+            Subsection section = Subsection.random(new Random(seed), BASE_LENGTH, BUFFER);
+            int rectX = section.getRectX();
+            int rectY = section.getRectY();
+            int rectLength = section.getRectLength();
+
+            // Identifies where in space the rectangle is
+            Rectangle bound = new Rectangle(rectX, rectY, rectLength,
+                    rectLength);
+            bound.setFill(Color.rgb(0, 0, 0, 0));
+            bound.setStroke(Color.BLUE);
+            bound.setStrokeWidth(2);
+
+            int depth = section.getDepth();
+
+            boolean fullscreen = fullscreenSelection.isSelected();
+            boolean lod = lodSelection.isSelected();
+            SubstitutionRules rules = rulesSelection.getValue();
+            double scale = fullscreen ? (double) (BASE_LENGTH) / rectLength : 1;
+
+            // Clears the previous generation
+            center.getChildren().setAll(canvas);
+            canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            if (!fullscreen)
+                center.getChildren().add(bound);
+
+            run(new GenerationTask(canvas, task -> {
+                // Root triangle is always the same for the same rules
+                TileBuffer rootTri = rules.rootTri(BASE_LENGTH);
+
+                // Lambda function that checks if a triangle overlaps with the rectangle. Once the task is cancelled
+                // every triangle is pruned, so the build winds down early
+                TileBuffer.CheckTile setTri = (pts, offset) -> !task.isCancelled() && section.overlapping(pts, offset);
+
+                // Subtrees entirely within the rectangle don't need to be checked, so they are stamped from templates
+                TileBuffer.CheckTile insideTri = section::inside;
+
+                GenerationStats stats = STATS ? new GenerationStats(depth) : null;
+
+                // Triangles that stopped subdividing early. Stays empty unless level of detail is selected
+                TileBuffer aggregates = new TileBuffer();
+
+                task.status("Building depth " + depth);
+                TileBuffer[] levels = lod
+                        ? tiling.buildPenroseTiles(rules, rootTri, depth, setTri, scale, LOD_PIXELS, aggregates)
+                        : tiling.buildPenroseTiles(rules, rootTri, depth, setTri, insideTri, stats);
+
+                long paintStart = System.nanoTime();
+                if (fullscreen) {
+                    // Draws the new tiles to the scale of the screen
+                    task.paint(levels, aggregates, false, rectX, rectY, scale);
+                } else {
+                    // Draws ghost tiles under the new tiles. Every level above the last one is ghost drawn
+                    task.paint(levels, aggregates, true, 0, 0, 1);
+                }
+
+                if (stats != null) {
+                    stats.recordRender(System.nanoTime() - paintStart, levels[depth].size());
+                    System.out.print(stats);
+                }
+
+                return "Seed " + seed + ", depth " + depth + ": " + levels[depth].size() + " tiles";
+            }), progressBar, statusLabel, errorLabel);
+        });
+
+        Button viewerButton = new Button("Pan and zoom");
+
+        viewerButton.setOnAction(event -> {
+            // Nothing else should keep painting underneath the viewer
+            if (current != null)
+                current.cancel();
+
+            // Made once so the chunks built so far are kept when coming back to the viewer
+            if (viewer == null)
+                viewer = new TilingViewer(BASE_LENGTH, BASE_LENGTH, chunks, WORLD_LENGTH / 2.,
+                        0.7 * TileBuffer.rootHeight(WORLD_LENGTH), MIN_VIEWER_ZOOM, MAX_VIEWER_ZOOM);
+
+            center.getChildren().setAll(viewer);
+            viewer.redraw();
+        });
+
+        HBox randomSubsectionBox = new HBox(fullscreenSelection, randomSection, viewerButton);
+        randomSubsectionBox.setSpacing(10);
+        randomSubsectionBox.setAlignment(Pos.BOTTOM_RIGHT);
+
+        // Formatting for the bottom
+        HBox bottomBox = new HBox();
+        bottomBox.setSpacing(10);
+
+        HBox.setHgrow(depthInputBox, javafx.scene.layout.Priority.ALWAYS);
+        HBox.setHgrow(randomSubsectionBox, javafx.scene.layout.Priority.ALWAYS);
+        HBox statusBox = new HBox(progressBar, statusLabel);
+        statusBox.setSpacing(10);
+        statusBox.setAlignment(Pos.BOTTOM_CENTER);
+
+        bottomBox.getChildren().addAll(depthInputBox, statusBox, randomSubsectionBox);
+
+        // Lets mouse events on the empty parts of the bottom bar through to the viewer
+        for (Region box : new Region[]{bottomBox, depthInputBox, statusBox, randomSubsectionBox})
+            box.setPickOnBounds(false);
+
+        StackPane root = new StackPane(center, bottomBox);
+
+        Scene scene = new Scene(root, BASE_LENGTH, BASE_LENGTH);
+
+        window.setTitle("Aperiodic Tiling Generator");
+        window.setScene(scene);
+        window.show();
+    }
+
+    /**
+     * Starts a generation in the background, cancelling the one before it if it is still going. Generations run one at
+     * a time, so a new one only starts once the cancelled one has stopped at its next batch
+     */
+    private void run(GenerationTask task, ProgressBar progressBar, Label statusLabel, Label errorLabel) {
+        if (current != null)
+            current.cancel();
+        current = task;
+
+        progressBar.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+
+        task.setOnFailed(event -> {
+            statusLabel.textProperty().unbind();
+            statusLabel.setText(task.getException().getMessage());
+            System.out.println(task.getException().getMessage());
+            errorLabel.setVisible(true);
+        });
+
+        executor.execute(task);
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+        chunks.shutdown();
+        tiling.shutdown();
+    }
+}
@@ -0,0 +1,174 @@
+package tiling.ui;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import tiling.ChunkCache;
+import tiling.TileBuffer;
+import tiling.TilePainter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pane that pans and zooms over a tiling far bigger than the window. Drag to pan, scroll to zoom. What is on screen is
+ * drawn from the chunks of a ChunkCache at the zoom level closest to the current scale, and chunks that aren't built
+ * yet are requested and drawn once they are. The ring of chunks around the view is prefetched, so coming back to a
+ * region or panning a little never waits on the tiling. Chunks that leave the view before their build starts are
+ * dropped from the queue
+ */
+public class TilingViewer extends Pane {
+    // How much one notch of the scroll wheel zooms by
+    private static final double ZOOM_STEP = 1.1;
+
+    // Chunks prefetched past each side of the view
+    private static final int PREFETCH = 1;
+
+    private final Canvas canvas;
+    private final ChunkCache chunks;
+
+    // Range the view's scale may move in, as pixels per world length
+    private final double minScale;
+    private final double maxScale;
+
+    // World point shown at the middle of the canvas, and the pixels a world length spans
+    private double centerX;
+    private double centerY;
+    private double scale;
+
+    // Where the last mouse event was, while dragging
+    private double dragX;
+    private double dragY;
+
+    // Set while a redraw is queued, so a burst of chunks finishing only redraws once
+    private final AtomicBoolean redrawQueued = new AtomicBoolean();
+
+    /**
+     * @param width   width of the view in pixels
+     * @param height  height of the view in pixels
+     * @param chunks  where the tiles come from
+     * @param centerX world x coordinate the view starts centered on
+     * @param centerY world y coordinate the view starts centered on
+     * @param minZoom the furthest out the view can zoom, as a ChunkCache zoom level
+     * @param maxZoom the furthest in the view can zoom, as a ChunkCache zoom level
+     */
+    public TilingViewer(double width, double height, ChunkCache chunks, double centerX, double centerY, int minZoom,
+                        int maxZoom) {
+        canvas = new Canvas(width, height);
+        getChildren().add(canvas);
+
+        this.chunks = chunks;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        minScale = Math.pow(2, minZoom);
+        maxScale = Math.pow(2, maxZoom);
+        scale = 1;
+
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+
+        setOnMouseDragged(event -> {
+            this.centerX -= (event.getX() - dragX) / scale;
+            this.centerY -= (event.getY() - dragY) / scale;
+            dragX = event.getX();
+            dragY = event.getY();
+            redraw();
+        });
+
+        setOnScroll(event -> {
+            double factor = event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP;
+            double newScale = Math.max(minScale, Math.min(maxScale, scale * factor));
+
+            // Keeps the world point under the mouse in place
+            double worldX = toWorldX(event.getX());
+            double worldY = toWorldY(event.getY());
+            scale = newScale;
+            this.centerX = worldX - (event.getX() - canvas.getWidth() / 2) / scale;
+            this.centerY = worldY - (event.getY() - canvas.getHeight() / 2) / scale;
+            redraw();
+        });
+
+        redraw();
+    }
+
+    /**
+     * Draws every chunk on screen that is built, and requests the rest along with the ones around the view
+     */
+    public void redraw() {
+        int zoom = (int) Math.round(Math.log(scale) / Math.log(2));
+        double length = chunks.chunkLength(zoom);
+
+        double offsetX = toWorldX(0);
+        double offsetY = toWorldY(0);
+
+        int firstX = chunkIndex(offsetX / length);
+        int firstY = chunkIndex(offsetY / length);
+        int lastX = chunkIndex(toWorldX(canvas.getWidth()) / length);
+        int lastY = chunkIndex(toWorldY(canvas.getHeight()) / length);
+
+        // Builds still waiting for chunks the view has moved away from would only hold up the ones on screen
+        chunks.retain(zoom, firstX - PREFETCH, firstY - PREFETCH, lastX + PREFETCH, lastY + PREFETCH);
+
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        FxTileSurface surface = new FxTileSurface(graphics);
+
+        // Fills go down first for every chunk so a tile on the edge of two chunks can't cover the other's lines
+        TileBuffer[] visible = new TileBuffer[(lastX - firstX + 1) * (lastY - firstY + 1)];
+        int count = 0;
+        for (int cy = firstY; cy <= lastY; cy++)
+            for (int cx = firstX; cx <= lastX; cx++) {
+                TileBuffer chunk = chunks.getIfPresent(zoom, cx, cy);
+                if (chunk == null) {
+                    chunks.request(zoom, cx, cy).thenRun(this::queueRedraw);
+                    continue;
+                }
+
+                TilePainter.paintFills(surface, chunk, offsetX, offsetY, scale);
+                visible[count++] = chunk;
+            }
+
+        for (int i = 0; i < count; i++)
+            TilePainter.paintLines(surface, visible[i], offsetX, offsetY, scale);
+
+        // Only starts building the ring around the view, behind every chunk on screen. Nothing waits on it
+        for (int cy = firstY - PREFETCH; cy <= lastY + PREFETCH; cy++)
+            for (int cx = firstX - PREFETCH; cx <= lastX + PREFETCH; cx++)
+                if (inRange(cx, cy) && (cx < firstX || cx > lastX || cy < firstY || cy > lastY))
+                    chunks.prefetch(zoom, cx, cy);
+    }
+
+    /**
+     * Redraws on the FX application thread. Called from the threads chunks are built on
+     */
+    private void queueRedraw() {
+        if (!redrawQueued.compareAndSet(false, true))
+            return;
+
+        Platform.runLater(() -> {
+            redrawQueued.set(false);
+            redraw();
+        });
+    }
+
+    private double toWorldX(double screenX) {
+        return centerX + (screenX - canvas.getWidth() / 2) / scale;
+    }
+
+    private double toWorldY(double screenY) {
+        return centerY + (screenY - canvas.getHeight() / 2) / scale;
+    }
+
+    /**
+     * Rounds a position measured in chunks down to a chunk index the cache can hold
+     */
+    private static int chunkIndex(double position) {
+        return (int) Math.max(-ChunkCache.MAX_CHUNK, Math.min(ChunkCache.MAX_CHUNK, Math.floor(position)));
+    }
+
+    private static boolean inRange(int cx, int cy) {
+        return Math.abs(cx) <= ChunkCache.MAX_CHUNK && Math.abs(cy) <= ChunkCache.MAX_CHUNK;
+    }
+}
@@ -0,0 +1,199 @@
+package tiling.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import tiling.BatchSubdivider;
+import tiling.TileBuffer;
+
+/**
+ * BatchSubdivider with its loops on the incubating Vector API. Every lane does the same adds, subtracts and multiplies
+ * as the scalar kernel, with no fused multiply adds, so the results are the same bit for bit. The triangles a whole
+ * vector doesn't fit are left to the scalar loops
+ * <p>
+ * Only built with the vector profile, and only used when jdk.incubator.vector is added at run time
+ * (--add-modules jdk.incubator.vector). BatchSubdivider.create falls back to the scalar kernel otherwise
+ */
+public class VectorSubdivider extends BatchSubdivider {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector " + SPECIES.vectorBitSize() + " bit";
+    }
+
+    @Override
+    protected void type0(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff,
+                         double[][] c, int cOff) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, src[0], i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, src[1], i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, src[2], i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, src[3], i);
+            DoubleVector x3 = DoubleVector.fromArray(SPECIES, src[4], i);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, src[5], i);
+
+            DoubleVector nx1 = along(x1, x2, TileBuffer.INV_PHI);
+            DoubleVector ny1 = along(y1, y2, TileBuffer.INV_PHI);
+            DoubleVector nx2 = along(x3, x1, TileBuffer.INV_PHI);
+            DoubleVector ny2 = along(y3, y1, TileBuffer.INV_PHI);
+
+            write(a, aOff + i, nx2, ny2, x1, y1, nx1, ny1);
+            write(b, bOff + i, x3, y3, nx2, ny2, nx1, ny1);
+            write(c, cOff + i, x3, y3, nx1, ny1, x2, y2);
+        }
+
+        super.type0(src, i, to, a, aOff, b, bOff, c, cOff);
+    }
+
+    @Override
+    protected void type1(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff,
+                         double[][] c, int cOff) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, src[0], i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, src[1], i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, src[2], i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, src[3], i);
+            DoubleVector x3 = DoubleVector.fromArray(SPECIES, src[4], i);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, src[5], i);
+
+            DoubleVector nx1 = along(x2, x1, TileBuffer.INV_PHI);
+            DoubleVector ny1 = along(y2, y1, TileBuffer.INV_PHI);
+            DoubleVector nx2 = along(x1, x3, TileBuffer.INV_PHI);
+            DoubleVector ny2 = along(y1, y3, TileBuffer.INV_PHI);
+
+            write(a, aOff + i, nx1, ny1, nx2, ny2, x1, y1);
+            write(b, bOff + i, x2, y2, nx2, ny2, nx1, ny1);
+            write(c, cOff + i, x2, y2, x3, y3, nx2, ny2);
+        }
+
+        super.type1(src, i, to, a, aOff, b, bOff, c, cOff);
+    }
+
+    @Override
+    protected void type2(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, src[0], i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, src[1], i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, src[2], i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, src[3], i);
+            DoubleVector x3 = DoubleVector.fromArray(SPECIES, src[4], i);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, src[5], i);
+
+            DoubleVector nx1 = along(x2, x3, TileBuffer.INV_PHI);
+            DoubleVector ny1 = along(y2, y3, TileBuffer.INV_PHI);
+
+            write(a, aOff + i, nx1, ny1, x3, y3, x1, y1);
+            write(b, bOff + i, x2, y2, nx1, ny1, x1, y1);
+        }
+
+        super.type2(src, i, to, a, aOff, b, bOff);
+    }
+
+    @Override
+    protected void type3(double[][] src, int from, int to, double[][] a, int aOff, double[][] b, int bOff) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, src[0], i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, src[1], i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, src[2], i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, src[3], i);
+            DoubleVector x3 = DoubleVector.fromArray(SPECIES, src[4], i);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, src[5], i);
+
+            DoubleVector nx1 = along(x2, x3, TileBuffer.INV_PHI_SQ);
+            DoubleVector ny1 = along(y2, y3, TileBuffer.INV_PHI_SQ);
+
+            write(a, aOff + i, nx1, ny1, x1, y1, x2, y2);
+            write(b, bOff + i, x3, y3, x1, y1, nx1, ny1);
+        }
+
+        super.type3(src, i, to, a, aOff, b, bOff);
+    }
+
+    /**
+     * Same as KDPenroseTri.overlapping, one vector of triangles at a time
+     */
+    @Override
+    protected void overlapping(double[][] group, int from, int to, double rectX, double rectY, double rectLength,
+                               boolean[] keep) {
+        double rectRight = rectX + rectLength;
+        double rectBottom = rectY + rectLength;
+
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, group[0], i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, group[1], i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, group[2], i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, group[3], i);
+            DoubleVector x3 = DoubleVector.fromArray(SPECIES, group[4], i);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, group[5], i);
+
+            // Bounding box early reject. Same as projecting onto the x and y axes
+            VectorMask<Double> apart = x1.max(x2.max(x3)).compare(VectorOperators.LT, rectX)
+                    .or(x1.min(x2.min(x3)).compare(VectorOperators.GT, rectRight))
+                    .or(y1.max(y2.max(y3)).compare(VectorOperators.LT, rectY))
+                    .or(y1.min(y2.min(y3)).compare(VectorOperators.GT, rectBottom));
+
+            // The edge normals are skipped when every lane is already apart
+            if (!apart.allTrue())
+                apart = apart.or(separates(x1, y1, x2, y2, x3, y3, rectX, rectY, rectRight, rectBottom))
+                        .or(separates(x2, y2, x3, y3, x1, y1, rectX, rectY, rectRight, rectBottom))
+                        .or(separates(x3, y3, x1, y1, x2, y2, rectX, rectY, rectRight, rectBottom));
+
+            apart.not().intoArray(keep, i);
+        }
+
+        super.overlapping(group, i, to, rectX, rectY, rectLength, keep);
+    }
+
+    /**
+     * One edge normal of the separating axis test in KDPenroseTri.overlapping, for a vector of triangles
+     *
+     * @return the lanes where the normal of the edge from a to b separates the triangle abc from the rectangle
+     */
+    private static VectorMask<Double> separates(DoubleVector ax, DoubleVector ay, DoubleVector bx, DoubleVector by,
+                                                DoubleVector cx, DoubleVector cy, double rectX, double rectY,
+                                                double rectRight, double rectBottom) {
+        DoubleVector nx = by.sub(ay);
+        DoubleVector ny = ax.sub(bx);
+
+        DoubleVector edge = nx.mul(ax).add(ny.mul(ay));
+        DoubleVector opposite = nx.mul(cx).add(ny.mul(cy));
+        DoubleVector triMin = edge.min(opposite);
+        DoubleVector triMax = edge.max(opposite);
+
+        // The rectangle's nearest and furthest corners along the normal
+        VectorMask<Double> nxPositive = nx.compare(VectorOperators.GE, 0);
+        VectorMask<Double> nyPositive = ny.compare(VectorOperators.GE, 0);
+        DoubleVector left = DoubleVector.broadcast(SPECIES, rectX);
+        DoubleVector right = DoubleVector.broadcast(SPECIES, rectRight);
+        DoubleVector top = DoubleVector.broadcast(SPECIES, rectY);
+        DoubleVector bottom = DoubleVector.broadcast(SPECIES, rectBottom);
+        DoubleVector rectMin = nx.mul(right.blend(left, nxPositive)).add(ny.mul(bottom.blend(top, nyPositive)));
+        DoubleVector rectMax = nx.mul(left.blend(right, nxPositive)).add(ny.mul(top.blend(bottom, nyPositive)));
+
+        return rectMax.compare(VectorOperators.LT, triMin).or(rectMin.compare(VectorOperators.GT, triMax));
+    }
+
+    /**
+     * @return from + t * (to - from), with the same rounding as the scalar kernel
+     */
+    private static DoubleVector along(DoubleVector from, DoubleVector to, double t) {
+        return from.add(to.sub(from).mul(t));
+    }
+
+    private static void write(double[][] dst, int i, DoubleVector x1, DoubleVector y1, DoubleVector x2,
+                              DoubleVector y2, DoubleVector x3, DoubleVector y3) {
+        x1.intoArray(dst[0], i);
+        y1.intoArray(dst[1], i);
+        x2.intoArray(dst[2], i);
+        y2.intoArray(dst[3], i);
+        x3.intoArray(dst[4], i);
+        y3.intoArray(dst[5], i);
+    }
+}